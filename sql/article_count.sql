@@ -0,0 +1,7 @@
+-- 标签/分类的已发布文章数（user-018）
+-- 实时值保存在 Redis 哈希 count:tag / count:category 中，ArticleCountService 定期校正后写回这两列；
+-- Redis 不可用时标签/分类列表使用这里的值。未执行本脚本时应用照常运行，只是跳过写回与数据库回退
+-- 只需执行一次，执行后等待下一次校正（count.reconcile-interval-millis）填充数值
+
+ALTER TABLE article_tag ADD COLUMN article_count BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE article_category ADD COLUMN article_count BIGINT NOT NULL DEFAULT 0;
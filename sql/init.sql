@@ -9,7 +9,21 @@ CREATE TABLE IF NOT EXISTS `user` (
   `created_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
   `updated_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
   PRIMARY KEY (`id`),
-  UNIQUE KEY `uk_username` (`username`)
+  UNIQUE KEY `uk_username` (`username`),
+  KEY `idx_created_at_id` (`created_at`, `id`)  -- 用户列表游标分页
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
--- 其他表结构...
\ No newline at end of file
+-- 其他表结构...
+
+-- 文章列表游标分页使用的索引（article 表创建后执行）
+-- CREATE INDEX idx_article_publish_time_id ON article (publish_time, article_id);
+-- 文章全文检索索引（search.backend=fulltext 时使用，article 表创建后执行，ngram 分词默认按两字切分）
+-- CREATE FULLTEXT INDEX ft_article_title_content ON article (title, content) WITH PARSER ngram;
+-- 标签名唯一约束（批量创建标签的 INSERT IGNORE 依赖它去重）：执行 sql/tag_name_unique.sql
+-- ALTER TABLE article_tag ADD UNIQUE KEY uk_tag_name (tag_name);
+-- 标签/分类的已发布文章数列：执行 sql/article_count.sql（可选，未执行时只在 Redis 中维护计数）
+-- 标签/分类文章列表游标分页使用的索引（执行计划见 sql/listing_explain.sql）
+-- 分类：(category, publish_time) 直接提供排序，status 放在索引中过滤草稿，二级索引隐含主键 article_id
+-- CREATE INDEX idx_article_category_time ON article (category, publish_time, status);
+-- 标签：按标签取文章ID（主键为 (article_id, tag_id) 时不能按 tag_id 查找）
+-- CREATE INDEX idx_atr_tag_article ON article_tag_relation (tag_id, article_id);
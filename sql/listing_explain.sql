@@ -0,0 +1,40 @@
+-- 标签/分类文章列表（游标分页）的执行计划检查
+-- 在测试库执行（MySQL 8.0+），先按 init.sql 创建 idx_article_category_time 与 idx_atr_tag_article
+-- 语句与 articleCategoryRepository.xml / articleTagRepository.xml 中的查询一致，游标取值只是示例
+
+ANALYZE TABLE article, article_tag_relation;
+
+-- 1. 分类文章列表第一页
+-- 期望：key = idx_article_category_time，type = ref，Extra 含 Backward index scan、Using where，没有 Using filesort
+EXPLAIN
+SELECT a.article_id, a.title, a.author_id, a.publish_time, a.category, a.summary, a.update_time, a.status, a.view_count
+FROM article a
+WHERE a.category = '技术'
+  AND a.status != 'draft'
+ORDER BY a.publish_time DESC, a.article_id DESC
+LIMIT 11;
+
+-- 2. 分类文章列表翻页（带游标）
+-- 期望：key = idx_article_category_time，type = range，没有 Using filesort；扫描行数与第一页相当，不随页数增长
+EXPLAIN
+SELECT a.article_id, a.title, a.author_id, a.publish_time, a.category, a.summary, a.update_time, a.status, a.view_count
+FROM article a
+WHERE a.category = '技术'
+  AND a.status != 'draft'
+  AND (a.publish_time < '2025-01-01 00:00:00'
+       OR (a.publish_time = '2025-01-01 00:00:00' AND a.article_id < 100000))
+ORDER BY a.publish_time DESC, a.article_id DESC
+LIMIT 11;
+
+-- 3. 标签文章列表
+-- 期望：atr 使用 idx_atr_tag_article（type = ref，Using index），a 按主键 eq_ref 回表；
+-- 排序字段在 article 表上，因此有 Using temporary; Using filesort，排序时只保留 LIMIT 行（EXPLAIN ANALYZE 可见 top-N sort）
+-- 扫描行数等于该标签的文章数；标签下文章极多时可改用 /api/articles/filter（位图索引）
+EXPLAIN
+SELECT a.article_id, a.title, a.author_id, a.publish_time, a.category, a.summary, a.update_time, a.status, a.view_count
+FROM article_tag_relation atr
+JOIN article a ON a.article_id = atr.article_id
+WHERE atr.tag_id = 1
+  AND a.status != 'draft'
+ORDER BY a.publish_time DESC, a.article_id DESC
+LIMIT 11;
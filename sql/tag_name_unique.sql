@@ -0,0 +1,35 @@
+-- 标签名唯一约束（user-015）
+-- 批量创建标签使用 INSERT IGNORE（articleTagRepository.xml insertIgnoreBatch），依赖该约束去重；
+-- 没有该约束时并发创建同名标签会插入多行，按名称查询标签会得到多个ID
+-- 只需执行一次；已有重复标签时先合并（关联改指向同名标签中ID最小的一个），再添加约束
+
+-- 1. 查看重复的标签名（没有结果时可直接执行第3步）
+SELECT tag_name, COUNT(*) AS copies FROM article_tag GROUP BY tag_name HAVING COUNT(*) > 1;
+
+-- 2. 合并重复标签
+CREATE TEMPORARY TABLE tag_keep AS
+SELECT tag_name, MIN(tag_id) AS keep_id FROM article_tag GROUP BY tag_name HAVING COUNT(*) > 1;
+
+-- 关联改指向保留的标签；文章已带有保留标签时该行改不了（主键冲突），由下一条删除
+UPDATE IGNORE article_tag_relation atr
+JOIN article_tag t ON atr.tag_id = t.tag_id
+JOIN tag_keep k ON t.tag_name = k.tag_name
+SET atr.tag_id = k.keep_id
+WHERE atr.tag_id <> k.keep_id;
+
+DELETE atr FROM article_tag_relation atr
+JOIN article_tag t ON atr.tag_id = t.tag_id
+JOIN tag_keep k ON t.tag_name = k.tag_name
+WHERE atr.tag_id <> k.keep_id;
+
+DELETE t FROM article_tag t
+JOIN tag_keep k ON t.tag_name = k.tag_name
+WHERE t.tag_id <> k.keep_id;
+
+DROP TEMPORARY TABLE tag_keep;
+
+-- 3. 添加唯一约束
+ALTER TABLE article_tag ADD UNIQUE KEY uk_tag_name (tag_name);
+
+-- 执行后清除标签缓存（各节点的标签字典在版本号变化后重新加载）：
+-- redis-cli HINCRBY cache:version:tag version 1
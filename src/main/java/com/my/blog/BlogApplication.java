@@ -2,7 +2,9 @@ package com.my.blog;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+@EnableScheduling  // 启用定时任务（浏览量批量写库、令牌清理等）
 @SpringBootApplication
 public class BlogApplication {
 
@@ -1,7 +1,7 @@
 package com.my.blog.config;
 
 import com.my.blog.entity.User;
-import com.my.blog.repository.UserRepository;
+import com.my.blog.service.Impl.UserCacheService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -18,10 +18,10 @@ import java.util.Collections;
 @Service  //
 public class CustomUserDetailsService implements UserDetailsService {
     /**
-     * MyBatis-Plus用户数据访问接口（确保实现了selectByUsername方法）
+     * 用户两级缓存（本地 + Redis），未命中时才查询数据库；用户状态/角色/密码变更后由 UserServiceImpl 失效
      */
     @Autowired
-    private UserRepository userRepository;
+    private UserCacheService userCacheService;
 
     /**
      * 用户认证核心逻辑（由Spring Security自动调用）
@@ -31,8 +31,8 @@ public class CustomUserDetailsService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        //1.查询用户：调用自定义的MyBatis-Plus查询方法
-        User user = userRepository.queryByUsername(username); // 自定义查询方法
+        //1.查询用户：先查缓存，未命中时调用自定义的MyBatis-Plus查询方法
+        User user = userCacheService.get(username);
         if (user == null) {
             throw new UsernameNotFoundException("用户不存在：" + username);
         }
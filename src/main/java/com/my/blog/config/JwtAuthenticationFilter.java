@@ -1,20 +1,26 @@
 // JwtAuthenticationFilter.java  位于src/main/java/config包
 package com.my.blog.config;
 
+import com.my.blog.service.Impl.UserEpochService;
 import com.my.blog.utils.JwtUtils;
 import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.Date;
 
 /*这是Spring Security框架中处理JWT认证的核心过滤器，作为HTTP请求进入系统的第一道安全防线。主要承担三大职责：
@@ -28,10 +34,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtils jwtUtils;    // JWT解析工具（包含密钥管理）
     private final CustomUserDetailsService userDetailsService;  // 用户详情查询服务
+    private final UserEpochService userEpochService;  // 用户纪元表（令牌吊销）
 
-    public JwtAuthenticationFilter(JwtUtils jwtUtils, CustomUserDetailsService userDetailsService) {
+    /**
+     * 无状态认证：直接用令牌中的用户名和角色构建认证信息，不按请求查询用户表；
+     * 禁用/注销账号、角色变更通过用户纪元表吊销旧令牌。默认关闭，每个请求都从数据库加载用户，
+     * 设置 auth.stateless=true 开启
+     */
+    @Value("${auth.stateless:false}")
+    private boolean stateless;
+
+    public JwtAuthenticationFilter(JwtUtils jwtUtils, CustomUserDetailsService userDetailsService,
+                                   UserEpochService userEpochService) {
         this.jwtUtils  = jwtUtils;
         this.userDetailsService  = userDetailsService;
+        this.userEpochService = userEpochService;
     }
 
     /**
@@ -62,16 +79,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 // 阶段2：解析和验证
                 Claims claims = jwtUtils.parseToken(token);  // 解码并验证签名
 
-                // 检查令牌是否过期（过期时间晚于当前时间）
-                if (claims.getExpiration().after(new Date())) {
+                // 检查令牌是否过期（过期时间晚于当前时间），且只接受访问令牌（刷新令牌有效期长，不能用作Bearer令牌）
+                if (claims.getExpiration().after(new Date()) && "access".equals(claims.get("type"))) {
 
                     String username = claims.getSubject();  // 从sub字段获取用户名
 
                     // 阶段3：权限上下文注入
                     // 如果当前请求未绑定认证信息（避免重复加载）
-                    if (username != null && SecurityContextHolder.getContext().getAuthentication()  == null) {
-                        // 从数据库加载用户权限（触发CustomUserDetailsService）
-                        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                    if (username != null && SecurityContextHolder.getContext().getAuthentication()  == null
+                            && !userEpochService.isRevoked(username, jwtUtils.getEpoch(claims))) {
+                        // 无状态模式从令牌声明构建用户，否则从数据库加载用户权限（触发CustomUserDetailsService）
+                        UserDetails userDetails = stateless
+                                ? fromClaims(username, claims)
+                                : userDetailsService.loadUserByUsername(username);
 
                         // 构建认证令牌（密码留空，因为JWT已包含凭证）
                         UsernamePasswordAuthenticationToken authentication =
@@ -99,4 +119,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request,  response); // 继续后续过滤器或控制器
     }
 
+    // 角色前缀规则与 CustomUserDetailsService 一致；令牌中没有密码，凭证留空
+    private UserDetails fromClaims(String username, Claims claims) {
+        String role = claims.get("role", String.class);
+        if (role == null) {
+            throw new IllegalArgumentException("令牌缺少角色声明");
+        }
+        String authority = role.startsWith("ROLE_") ? role : "ROLE_" + role.toUpperCase();
+        GrantedAuthority grantedAuthority = new SimpleGrantedAuthority(authority);
+        return new User(username, "", Collections.singletonList(grantedAuthority));
+    }
+
 }
\ No newline at end of file
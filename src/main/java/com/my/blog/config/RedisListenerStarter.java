@@ -0,0 +1,57 @@
+package com.my.blog.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 在应用就绪后启动 Redis 订阅容器
+ * Redis 暂时不可用时不影响应用启动，按固定间隔在后台重试，直到订阅成功
+ */
+@Slf4j
+@Component
+public class RedisListenerStarter implements ApplicationListener<ApplicationReadyEvent> {
+
+    private final RedisMessageListenerContainer container;
+
+    @Value("${cache.subscribe-retry-seconds:10}")
+    private long retrySeconds;  // 订阅失败后的重试间隔（秒）
+
+    private final ScheduledExecutorService retryExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "redis-subscribe-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RedisListenerStarter(RedisMessageListenerContainer container) {
+        this.container = container;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        tryStart();
+    }
+
+    private void tryStart() {
+        try {
+            container.start();
+            log.info("Redis 订阅容器已启动");
+        } catch (Exception e) {
+            log.warn("Redis 订阅容器启动失败，{}秒后重试: {}", retrySeconds, e.getMessage());
+            retryExecutor.schedule(this::tryStart, retrySeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryExecutor.shutdownNow();
+    }
+}
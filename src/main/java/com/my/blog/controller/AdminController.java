@@ -5,11 +5,15 @@ import com.my.blog.common.Result;
 import com.my.blog.entity.User;
 import com.my.blog.entity.Article;
 import com.my.blog.dto.request.ArticleUpdateDTO;
+import com.my.blog.dto.response.ArticleSummary;
+import com.my.blog.dto.response.CursorPage;
+import com.my.blog.dto.response.UserCacheStats;
 import com.my.blog.exception.CustomException;
 import com.my.blog.exception.ErrorCode;
 import com.my.blog.service.UserService;
 import com.my.blog.service.ArticleService;
 import com.my.blog.service.AdminArticleService;
+import com.my.blog.service.Impl.UserCacheService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,12 +33,26 @@ public class AdminController {
     @Autowired
     private AdminArticleService adminArticleService;
 
+    @Autowired
+    private UserCacheService userCacheService;
+
     @Operation(summary = "获取所有用户", description = "分页获取所有用户信息")  //测试通过
     @GetMapping("/users")
     public Result<IPage<User>> getAllUsers(
             @RequestParam(defaultValue = "1") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        IPage<User> userPage = userService.getAllUsers(page, size);
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "true") boolean withTotal) {
+        IPage<User> userPage = userService.getAllUsers(page, size, withTotal);
+        return Result.success("获取用户列表成功", userPage);
+    }
+
+    @Operation(summary = "游标分页获取用户", description = "按注册时间倒序，使用上一页返回的nextCursor获取下一页")
+    @GetMapping("/users/cursor")
+    public Result<CursorPage<User>> getUsersByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        CursorPage<User> userPage = userService.getUsersByCursor(cursor, size, withTotal);
         return Result.success("获取用户列表成功", userPage);
     }
     
@@ -101,10 +119,21 @@ public class AdminController {
     
     @Operation(summary = "获取所有文章", description = "分页获取所有文章信息")  //测试通过
     @GetMapping("/articles")
-    public Result<IPage<Article>> getAllArticles(
+    public Result<IPage<ArticleSummary>> getAllArticles(
             @RequestParam(defaultValue = "1") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        IPage<Article> articlePage = adminArticleService.getAllArticles(page, size);
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "true") boolean withTotal) {
+        IPage<ArticleSummary> articlePage = adminArticleService.getAllArticles(page, size, withTotal);
+        return Result.success("获取文章列表成功", articlePage);
+    }
+
+    @Operation(summary = "游标分页获取所有文章", description = "包含草稿，按发布时间倒序，使用上一页返回的nextCursor获取下一页")
+    @GetMapping("/articles/cursor")
+    public Result<CursorPage<ArticleSummary>> getAllArticlesByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        CursorPage<ArticleSummary> articlePage = adminArticleService.getAllArticlesByCursor(cursor, size, withTotal);
         return Result.success("获取文章列表成功", articlePage);
     }
     
@@ -134,6 +163,12 @@ public class AdminController {
         return Result.success("文章审核完成", null);
     }
 
+    @Operation(summary = "用户缓存统计", description = "本节点用户缓存的命中次数、数据库加载次数与命中率")
+    @GetMapping("/cache/users/stats")
+    public Result<UserCacheStats> getUserCacheStats() {
+        return Result.success("获取用户缓存统计成功", userCacheService.stats());
+    }
+
     //****************************************************************
 
 }
\ No newline at end of file
@@ -3,15 +3,19 @@ package com.my.blog.controller;
 import com.my.blog.common.Result;
 import com.my.blog.dto.request.ArticleCategoryCreateDTO;
 import com.my.blog.dto.request.ArticleCategoryDeleteDTO;
-import com.my.blog.entity.Article;
+import com.my.blog.dto.response.ArticleSummary;
+import com.my.blog.dto.response.CursorPage;
 import com.my.blog.entity.ArticleCategory;
 import com.my.blog.service.ArticleCategoryService;
+import com.my.blog.service.Impl.CacheInvalidationService;
+import com.my.blog.utils.HttpCacheUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 
@@ -23,6 +27,9 @@ public class ArticleCategoryController {
     @Autowired
     private ArticleCategoryService articleCategoryService;
 
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+
     //创建分类
     @PostMapping("/create")  //测试通过
     public Result create(@RequestBody @Validated ArticleCategoryCreateDTO DTO){
@@ -32,7 +39,11 @@ public class ArticleCategoryController {
 
     //查询所有分类
     @GetMapping("/queryAll")  //测试通过
-    public Result queryAll(){
+    public Result queryAll(ServletWebRequest webRequest){
+        // 分类版本号未变化时直接返回304，不查询分类
+        if (HttpCacheUtils.checkNotModified(webRequest, "categories", cacheInvalidationService::categoryVersion)) {
+            return null;
+        }
         List<ArticleCategory> articleCategories = articleCategoryService.selectAll();
 
         return Result.success("query_allCategory_success",articleCategories);
@@ -45,10 +56,14 @@ public class ArticleCategoryController {
         return Result.success("category_delete_success",i);
     }
 
-    @Operation(summary = "getArticlesByCategoryName", description = "根据分类名称获取所有文章")  //测试通过
-    @GetMapping("/name/{categoryName}/articles")  //根据分类名称获取所有文章
-    public Result getArticlesByCategoryName(@PathVariable String categoryName) {
-        List<Article> articles = articleCategoryService.getArticlesByCategoryName(categoryName);
+    @Operation(summary = "getArticlesByCategoryName", description = "根据分类名称游标分页获取已发布文章，按发布时间倒序")  //测试通过
+    @GetMapping("/name/{categoryName}/articles")  //根据分类名称获取文章
+    public Result getArticlesByCategoryName(@PathVariable String categoryName,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "10") int size,
+                                            @RequestParam(defaultValue = "false") boolean withTotal) {
+        CursorPage<ArticleSummary> articles = articleCategoryService.getArticlesByCategoryName(
+                categoryName, cursor, size, withTotal);
         return Result.success("get_category_articles_success", articles);
     }
 
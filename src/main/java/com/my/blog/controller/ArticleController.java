@@ -3,14 +3,19 @@ package com.my.blog.controller;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.my.blog.common.Result;
 import com.my.blog.dto.request.ArticleCreateDTO;
+import com.my.blog.dto.response.ArticleSummary;
+import com.my.blog.dto.response.CursorPage;
 import com.my.blog.entity.Article;
 import com.my.blog.service.ArticleService;
+import com.my.blog.utils.CacheVersion;
+import com.my.blog.utils.HttpCacheUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -59,32 +64,72 @@ public class ArticleController {
     }
 
 
-    @Operation(summary = "queryArticleByTitle", description = "query article")  //测试通过
+    @Operation(summary = "queryArticleByTitle", description = "全文检索文章（标题、摘要、正文），按相关度分页返回")  //测试通过
     @PostMapping("/title")
-    public Result selectArticleByTitle(String title){
-        List<Article> article = articleService.selectArticleByTitle(title);
+    public Result<IPage<ArticleSummary>> selectArticleByTitle(String title,
+            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(defaultValue = "10") int size){
+        IPage<ArticleSummary> article = articleService.searchArticles(title, page, size);
         return Result.success("query_article_success",article);
     }
 
     @Operation(summary = "获取所有文章", description = "分页获取所有文章信息")  //测试通过
     @GetMapping("/queryAllArticles")
-    public Result<IPage<Article>> getAllArticles(
+    public Result<IPage<ArticleSummary>> getAllArticles(
+            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "true") boolean withTotal) {
+        IPage<ArticleSummary> articlePage = articleService.getAllArticles(page, size, withTotal);
+        return Result.success("获取文章列表成功", articlePage);
+    }
+
+    @Operation(summary = "按标签/分类过滤文章",
+            description = "tags 全部带有（AND），anyTags 至少带有一个（OR），excludeTags 不带有（NOT），category 含子分类；按发布时间倒序分页")
+    @GetMapping("/filter")
+    public Result<IPage<ArticleSummary>> filterArticles(
+            @RequestParam(required = false) List<Long> tags,
+            @RequestParam(required = false) List<Long> anyTags,
+            @RequestParam(required = false) List<Long> excludeTags,
+            @RequestParam(required = false) String category,
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "10") int size) {
-        IPage<Article> articlePage = articleService.getAllArticles(page, size);
+        IPage<ArticleSummary> articlePage = articleService.filterArticles(tags, anyTags, excludeTags, category, page, size);
+        return Result.success("filter_article_success", articlePage);
+    }
+
+    @Operation(summary = "游标分页获取文章", description = "按发布时间倒序，使用上一页返回的nextCursor获取下一页，深分页不会变慢")
+    @GetMapping("/cursor")
+    public Result<CursorPage<ArticleSummary>> getArticlesByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        CursorPage<ArticleSummary> articlePage = articleService.getArticlesByCursor(cursor, size, withTotal);
         return Result.success("获取文章列表成功", articlePage);
     }
 
     @Operation(summary = "获取文章详情", description = "根据文章ID获取文章详情")  //测试通过
     @GetMapping("/{articleId}")
-    public Result getArticleById(@PathVariable Long articleId) {
+    public Result getArticleById(@PathVariable Long articleId, ServletWebRequest webRequest) {
+
+        // 先按版本号校验：客户端缓存仍有效时直接返回304，不加载文章、不计浏览量，也不序列化正文
+        CacheVersion version = articleService.getArticleVersion(articleId);
+        if (version != null && HttpCacheUtils.checkNotModified(webRequest,
+                HttpCacheUtils.articleETag(articleId, version), version.getModifiedMillis())) {
+            return null;
+        }
 
-        Article article = articleService.getArticleById(articleId);
+        Article article = articleService.findArticleById(articleId);
 
         if (article == null) {
             return Result.error(400, "文章不存在");
         }
-        return Result.success("获取文章详情成功", article);
+
+        // 校验版本尚未记录（如 Redis 数据丢失后首次访问）时按文章本身校验
+        if (version == null && HttpCacheUtils.checkNotModified(webRequest, HttpCacheUtils.articleETag(article),
+                HttpCacheUtils.lastModifiedMillis(article))) {
+            return null;
+        }
+        return Result.success("获取文章详情成功", articleService.recordView(article));
 
     }
 
@@ -3,16 +3,20 @@ package com.my.blog.controller;
 import com.my.blog.common.Result;
 import com.my.blog.dto.request.ArticleTagCreateDTO;
 import com.my.blog.dto.request.ArticleTagDeleteDTO;
-import com.my.blog.entity.Article;
+import com.my.blog.dto.response.ArticleSummary;
+import com.my.blog.dto.response.CursorPage;
 import com.my.blog.entity.ArticleCategory;
 import com.my.blog.entity.ArticleTag;
 import com.my.blog.service.Impl.ArticleTagServiceImpl;
+import com.my.blog.service.Impl.CacheInvalidationService;
+import com.my.blog.utils.HttpCacheUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 
@@ -24,6 +28,9 @@ public class ArticleTagController {
     @Autowired
     private ArticleTagServiceImpl articleTagServiceImpl;
 
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+
     @PreAuthorize("hasRole('ADMIN')")  //测试通过
     @PostMapping("/create")  //创建标签
     public Result create(@RequestBody @Validated ArticleTagCreateDTO articleTagCreateDTO) {
@@ -40,7 +47,11 @@ public class ArticleTagController {
 
     //查询所有标签
     @GetMapping("/queryAll")  //测试通过
-    public Result queryAll(){
+    public Result queryAll(ServletWebRequest webRequest){
+        // 标签版本号未变化时直接返回304，不查询标签
+        if (HttpCacheUtils.checkNotModified(webRequest, "tags", cacheInvalidationService::tagVersion)) {
+            return null;
+        }
         List<ArticleTag> Tags = articleTagServiceImpl.selectAll();
 
         return Result.success("query_allTag_success",Tags);
@@ -53,10 +64,13 @@ public class ArticleTagController {
         return Result.success("get_article_tags_success", tags);
     }
 
-    @Operation(summary = "getArticlesByTagId", description = "获取使用某个标签的所有文章")  //测试通过
-    @GetMapping("/{tagId}/articles")  //获取使用某个标签的所有文章
-    public Result getArticlesByTagId(@PathVariable Long tagId) {
-        List<Article> articles = articleTagServiceImpl.getArticlesByTagId(tagId);
+    @Operation(summary = "getArticlesByTagId", description = "游标分页获取使用某个标签的已发布文章，按发布时间倒序")  //测试通过
+    @GetMapping("/{tagId}/articles")  //获取使用某个标签的文章
+    public Result getArticlesByTagId(@PathVariable Long tagId,
+                                     @RequestParam(required = false) String cursor,
+                                     @RequestParam(defaultValue = "10") int size,
+                                     @RequestParam(defaultValue = "false") boolean withTotal) {
+        CursorPage<ArticleSummary> articles = articleTagServiceImpl.getArticlesByTagId(tagId, cursor, size, withTotal);
         return Result.success("get_tag_articles_success", articles);
     }
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.my.blog.controller;
+
+import com.my.blog.common.Result;
+import com.my.blog.dto.response.Suggestion;
+import com.my.blog.service.Impl.SuggestionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@Tag(name = "search", description = "search suggestions") // Swagger 文档标签
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    @Autowired
+    private SuggestionService suggestionService;
+
+    @Operation(summary = "输入提示", description = "按前缀匹配已发布文章标题与标签名，按浏览量/使用次数排序")
+    @GetMapping("/suggest")
+    public Result<List<Suggestion>> suggest(@RequestParam String q,
+                                            @RequestParam(defaultValue = "10") int limit) {
+        List<Suggestion> suggestions = suggestionService.suggest(q, limit);
+        return Result.success("suggest_success", suggestions);
+    }
+}
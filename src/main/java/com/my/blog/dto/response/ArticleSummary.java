@@ -0,0 +1,41 @@
+package com.my.blog.dto.response;
+
+import com.my.blog.entity.ArticleTag;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 文章列表项（只包含列表展示需要的列，不含正文 content）
+ * 所有列表接口都返回它，正文只在文章详情接口中加载
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ArticleSummary {
+
+    private Long articleId;  // 文章ID
+
+    private String title;  // 文章标题
+
+    private Long authorId;  // 作者ID
+
+    private LocalDateTime publishTime;  // 发布时间
+
+    private String category;  // 分类名称
+
+    private String summary;  // 摘要
+
+    private LocalDateTime updateTime;  // 更新时间
+
+    private String status;  // 文章状态：draft, approved, rejected
+
+    private Integer viewCount;  // 浏览量
+
+    private List<ArticleTag> tags;  // 文章标签（列表接口按页批量填充，不随列表项缓存）
+}
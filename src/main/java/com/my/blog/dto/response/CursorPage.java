@@ -0,0 +1,55 @@
+package com.my.blog.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页结果（keyset/seek 分页）
+ * 不使用 OFFSET，每一页的查询代价都与第一页相同
+ * @param <T> 列表项类型
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> records;  // 当前页数据
+
+    private String nextCursor;  // 下一页游标（不透明字符串），没有更多数据时为 null
+
+    private Long total;  // 总条数，只有请求时要求统计才返回，否则为 null
+
+    /**
+     * 每页最大条数
+     */
+    public static final int MAX_SIZE = 100;
+
+    /**
+     * 把客户端传入的每页大小限制在 [1, MAX_SIZE]
+     * @param size 每页大小
+     * @return 合法的每页大小
+     */
+    public static int normalizeSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_SIZE);
+    }
+
+    /**
+     * 根据多查询一条的结果构建分页：查询时 limit 取 size + 1，多出来的一条说明还有下一页
+     * @param rows 查询结果（最多 size + 1 条）
+     * @param size 每页大小
+     * @param cursorOf 根据当前页最后一条数据生成下一页游标
+     * @param total 总条数（可为 null）
+     * @return 分页结果
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, String> cursorOf, Long total) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null, total);
+        }
+        List<T> records = rows.subList(0, size);
+        return new CursorPage<>(records, cursorOf.apply(records.get(size - 1)), total);
+    }
+}
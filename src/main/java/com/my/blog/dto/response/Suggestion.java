@@ -0,0 +1,28 @@
+package com.my.blog.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 输入提示项（文章标题或标签名）
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class Suggestion {
+
+    public static final String TYPE_ARTICLE = "article";
+
+    public static final String TYPE_TAG = "tag";
+
+    private String text;  // 提示文本
+
+    private String type;  // 类型：article / tag
+
+    private Long id;  // 文章ID或标签ID
+
+    private long weight;  // 排序权重：文章为浏览量，标签为使用次数
+}
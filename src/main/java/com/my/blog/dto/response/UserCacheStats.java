@@ -0,0 +1,17 @@
+package com.my.blog.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 用户缓存命中统计（自节点启动以来）
+ */
+@Data
+@AllArgsConstructor
+public class UserCacheStats {
+    private long localHits;  // 本地缓存命中次数
+    private long redisHits;  // Redis 缓存命中次数
+    private long databaseLoads;  // 查询数据库的次数（含后台提前刷新）
+    private long localSize;  // 本地缓存当前条目数（估算）
+    private double hitRate;  // 命中率：(localHits + redisHits) / 总查询次数
+}
@@ -13,7 +13,7 @@ import java.time.LocalDateTime;
 /**
  *
  */
-@Builder
+@Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
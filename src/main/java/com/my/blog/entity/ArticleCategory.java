@@ -41,6 +41,14 @@ public class ArticleCategory {
     @TableField(value = "parent_category_id")
     private Long parentCategoryIdValue; // 存储父分类ID的值
 
+    /**
+     * 已发布文章数（不含子分类）：实时值保存在 Redis 哈希中，定期校正后写回 article_count 列（见 sql/article_count.sql）
+     * 不参与通用 CRUD（未执行迁移时分类的查询/插入不受影响），只通过 ArticleCategoryRepository 中的专用 SQL 读写
+     */
+    @Column(name = "article_count")
+    @TableField(exist = false)
+    private Long articleCount;
+
     /**
      * 父分类对象 - 通过手动查询设置，不由MyBatis-Plus直接管理
      * parentCategoryId 和 children 标记为 exist = false，​避免 MyBatis-Plus 尝试映射到数据库字段。
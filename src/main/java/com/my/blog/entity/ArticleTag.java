@@ -1,5 +1,6 @@
 package com.my.blog.entity;
 
+import com.baomidou.mybatisplus.annotation.TableField;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -20,4 +21,10 @@ public class ArticleTag {
     
     @Column(nullable = false, unique = true, length = 50)
     private String tagName;
+
+    // 已发布文章数：实时值保存在 Redis 哈希中，定期校正后写回 article_count 列（见 sql/article_count.sql）
+    // 不参与通用 CRUD（未执行迁移时标签的查询/插入不受影响），只通过 ArticleTagRepository 中的专用 SQL 读写
+    @Column(name = "article_count")
+    @TableField(exist = false)
+    private Long articleCount;
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.my.blog.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 文章变更事件（进程内）
+ * 本节点事务提交后、或收到其他节点的失效广播时发布，供本地派生数据（索引等）重新加载该文章
+ */
+@Getter
+public class ArticleChangedEvent extends ApplicationEvent {
+
+    /**
+     * 发生变更的文章ID
+     */
+    private final Long articleId;
+
+    /**
+     * 是否由其他节点的写操作触发
+     */
+    private final boolean remote;
+
+    public ArticleChangedEvent(Object source, Long articleId, boolean remote) {
+        super(source);
+        this.articleId = articleId;
+        this.remote = remote;
+    }
+}
@@ -0,0 +1,25 @@
+package com.my.blog.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 标签/分类变更事件（进程内）
+ * 本节点事务提交并更新命名空间版本号后发布，供本地字典等派生数据立即重新加载
+ * 其他节点通过轮询 Redis 中的版本号发现变更
+ */
+@Getter
+public class TaxonomyChangedEvent extends ApplicationEvent {
+
+    public enum Kind { TAG, CATEGORY }
+
+    /**
+     * 发生变更的数据类型
+     */
+    private final Kind kind;
+
+    public TaxonomyChangedEvent(Object source, Kind kind) {
+        super(source);
+        this.kind = kind;
+    }
+}
@@ -29,4 +29,14 @@ public class CustomException extends RuntimeException {
         super(errorCode.getMessage());
         this.code = errorCode.getCode();
     }
+
+    /**
+     * Exception constructor with extra detail appended to the standard message
+     * @param errorCode error code enumeration instance
+     * @param detail context for the caller, e.g. the offending IDs; the message becomes "message: detail"
+     */
+    public CustomException(ErrorCode errorCode, String detail) {
+        super(errorCode.getMessage() + ": " + detail);
+        this.code = errorCode.getCode();
+    }
 }
\ No newline at end of file
@@ -1,12 +1,15 @@
 package com.my.blog.repository;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
-import com.my.blog.entity.Article;
+import com.my.blog.dto.response.ArticleSummary;
 import com.my.blog.entity.ArticleCategory;
 import org.apache.ibatis.annotations.Delete;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Mapper
@@ -25,8 +28,42 @@ public interface ArticleCategoryRepository extends BaseMapper<ArticleCategory> {
     @Delete("DELETE from article_category WHERE category_name = #{categoryName}")
     int deleteByName(String categoryName);
 
-    // 根据分类名查询该分类下的所有文章
-    List<Article> findArticlesByCategoryName(String categoryName);
+    /**
+     * 游标分页查询分类下的已发布文章（不含正文），按 (publish_time, article_id) 倒序
+     * @param categoryName 分类名
+     * @param cursorTime 游标位置的发布时间，为 null 时从第一条开始
+     * @param cursorId 游标位置的文章ID
+     * @param limit 最多返回的条数
+     * @return 文章列表
+     */
+    List<ArticleSummary> findArticlesByCategoryName(@Param("categoryName") String categoryName,
+                                                    @Param("cursorTime") LocalDateTime cursorTime,
+                                                    @Param("cursorId") Long cursorId,
+                                                    @Param("limit") int limit);
+
+    /**
+     * 统计每个分类的已发布文章数（没有已发布文章的分类不返回），用于校正文章数
+     * @return 分类列表（只填充 categoryName、articleCount）
+     */
+    @Select("SELECT category AS category_name, COUNT(*) AS article_count FROM article " +
+            "WHERE status != 'draft' AND category IS NOT NULL GROUP BY category")
+    List<ArticleCategory> selectPublishedArticleCounts();
+
+    /**
+     * 读取数据库中保存的各分类文章数（最近一次校正的值，需要 article_count 列）
+     * @return 分类列表（只填充 categoryId、categoryName、articleCount）
+     */
+    @Select("SELECT category_id, category_name, article_count FROM article_category")
+    List<ArticleCategory> selectStoredArticleCounts();
+
+    /**
+     * 写回分类的已发布文章数
+     * @param categoryId 分类ID
+     * @param articleCount 文章数
+     * @return 受影响的行数
+     */
+    @Update("UPDATE article_category SET article_count = #{articleCount} WHERE category_id = #{categoryId}")
+    int updateArticleCount(@Param("categoryId") Long categoryId, @Param("articleCount") long articleCount);
 
 
 }
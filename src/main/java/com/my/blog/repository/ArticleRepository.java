@@ -1,6 +1,9 @@
 package com.my.blog.repository;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.my.blog.dto.response.ArticleSummary;
+import com.my.blog.dto.response.Suggestion;
 import com.my.blog.entity.Article;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
@@ -8,7 +11,10 @@ import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 @Mapper
 @Repository
@@ -21,6 +27,96 @@ public interface ArticleRepository extends BaseMapper<Article> {
     int deleteArticleByAuthorId(Long authorId);
     
     List<Article> selectArticleByTitle(String title);
+
+    /**
+     * 分页查询文章列表（不含正文）
+     * @param page 分页参数
+     * @param includeDrafts 是否包含草稿（管理端为 true）
+     * @return 文章列表分页结果
+     */
+    IPage<ArticleSummary> selectSummaryPage(IPage<ArticleSummary> page, @Param("includeDrafts") boolean includeDrafts);
+
+    /**
+     * 根据ID查询单篇文章的列表项（不含正文）
+     * @param articleId 文章ID
+     * @return 列表项，不存在时返回 null
+     */
+    ArticleSummary selectSummaryById(Long articleId);
+
+    /**
+     * 游标分页查询文章列表（不含正文），按 (publish_time, article_id) 倒序
+     * @param cursorTime 游标位置的发布时间，为 null 时从第一条开始
+     * @param cursorId 游标位置的文章ID
+     * @param limit 最多返回的条数
+     * @param includeDrafts 是否包含草稿（管理端为 true）
+     * @return 文章列表
+     */
+    List<ArticleSummary> selectSummariesAfter(@Param("cursorTime") LocalDateTime cursorTime,
+                                              @Param("cursorId") Long cursorId,
+                                              @Param("limit") int limit,
+                                              @Param("includeDrafts") boolean includeDrafts);
+
+    /**
+     * 根据标题模糊分页查询已发布文章列表（不含正文），全文索引不可用时的兜底查询
+     * @param page 分页参数
+     * @param title 标题关键字
+     * @return 文章列表分页结果
+     */
+    IPage<ArticleSummary> selectSummaryPageByTitle(IPage<ArticleSummary> page, @Param("title") String title);
+
+    /**
+     * 使用 FULLTEXT(ngram) 索引检索已发布文章（标题+正文），按相关度分页返回列表项（不含正文）
+     * 需要先在 article 表上创建 ft_article_title_content 索引，见 sql/init.sql
+     * @param page 分页参数
+     * @param keyword 关键字
+     * @return 文章列表分页结果
+     */
+    IPage<ArticleSummary> selectSummaryPageByFulltext(IPage<ArticleSummary> page, @Param("keyword") String keyword);
+
+    /**
+     * 按标签/分类组合条件分页查询已发布文章（不含正文），按发布时间倒序，过滤索引未就绪时的兜底查询
+     * @param page 分页参数
+     * @param allTagIds 必须全部带有的标签（AND）
+     * @param anyTagIds 至少带有其中一个的标签（OR）
+     * @param excludedTagIds 不能带有的标签（NOT）
+     * @param categories 所属分类名，为空时不限分类
+     * @return 文章列表分页结果
+     */
+    IPage<ArticleSummary> selectSummaryPageByFilter(IPage<ArticleSummary> page,
+                                                    @Param("allTagIds") Collection<Long> allTagIds,
+                                                    @Param("anyTagIds") Collection<Long> anyTagIds,
+                                                    @Param("excludedTagIds") Collection<Long> excludedTagIds,
+                                                    @Param("categories") Collection<String> categories);
+
+    /**
+     * 根据ID批量查询已发布文章的列表项（不含正文），结果顺序不保证与入参一致
+     * @param articleIds 文章ID列表
+     * @return 文章列表
+     */
+    List<ArticleSummary> selectSummariesByIds(@Param("articleIds") Collection<Long> articleIds);
+
+    /**
+     * 按文章ID顺序分批读取已发布文章的可检索字段（标题、摘要、正文），用于构建全文索引
+     * @param afterId 上一批最后一篇文章的ID，第一批传 0
+     * @param limit 每批条数
+     * @return 文章列表（只填充 articleId、title、summary、content、status）
+     */
+    List<Article> selectSearchableAfter(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    /**
+     * 按文章ID顺序分批读取已发布文章的发布时间与分类，用于构建标签/分类过滤索引
+     * @param afterId 上一批最后一篇文章的ID，第一批传 0
+     * @param limit 每批条数
+     * @return 文章列表（只填充 articleId、publishTime、category、status）
+     */
+    List<Article> selectFilterableAfter(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    /**
+     * 查询指定时间之后发布或修改过的文章ID（含草稿），用于全文索引启动时补齐增量
+     * @param since 起始时间
+     * @return 文章ID列表
+     */
+    List<Long> selectArticleIdsModifiedSince(@Param("since") LocalDateTime since);
     
     // 新增的方法
     // 在现有的 ArticleRepository 接口中添加以下方法
@@ -38,11 +134,37 @@ public interface ArticleRepository extends BaseMapper<Article> {
     void insertArticleTagRelation(@Param("articleId") Long articleId, @Param("tagId") Long tagId);
 
     // 在现有的ArticleRepository接口中添加以下方法
-    @Select("SELECT * FROM article ORDER BY view_count DESC LIMIT #{limit}")
+    @Select("SELECT * FROM article WHERE status != 'draft' ORDER BY view_count DESC LIMIT #{limit}")
     List<Article> findTopNByViewCount(int limit);
 
+    /**
+     * 查询所有已发布文章的标题与浏览量，用于构建输入提示索引
+     * @return 提示项列表（文本为标题，权重为浏览量）
+     */
+    List<Suggestion> selectTitleSuggestions();
+
+    /**
+     * 查询所有已发布（非草稿）文章的ID，用于构建布隆过滤器
+     * @return 文章ID列表
+     */
+    List<Long> selectPublishedArticleIds();
+
+    /**
+     * 查询当前最大的文章ID（含草稿，直接取主键索引末尾），作为布隆过滤器放行范围的上限
+     * @return 最大文章ID，没有文章时为0
+     */
+    @Select("SELECT COALESCE(MAX(article_id), 0) FROM article")
+    long selectMaxArticleId();
+
     // 添加更新浏览量的方法
     @Update("UPDATE article SET view_count = view_count + 1 WHERE article_id = #{articleId}")
     int incrementViewCount(Long articleId);
 
+    /**
+     * 批量累加浏览量（单条多行 UPDATE）
+     * @param deltas 文章ID -> 浏览量增量
+     * @return 受影响的行数
+     */
+    int batchIncrementViewCount(@Param("deltas") Map<Long, Long> deltas);
+
 }
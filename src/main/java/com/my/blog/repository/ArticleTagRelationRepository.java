@@ -3,11 +3,45 @@ package com.my.blog.repository;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.my.blog.entity.ArticleTagRelation;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
 
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
 public interface ArticleTagRelationRepository extends BaseMapper<ArticleTagRelation> {
 
     void deleteByArticleIds(List articleIds);
+
+    /**
+     * 为一篇文章批量插入标签关联（单条多行 INSERT）
+     * @param articleId 文章ID
+     * @param tagIds 标签ID列表，调用方保证非空且不重复
+     * @return 插入的行数
+     */
+    int insertBatch(@Param("articleId") Long articleId, @Param("tagIds") Collection<Long> tagIds);
+
+    /**
+     * 查询文章当前关联的全部标签ID
+     * @param articleId 文章ID
+     * @return 标签ID列表
+     */
+    @Select("SELECT tag_id FROM article_tag_relation WHERE article_id = #{articleId}")
+    List<Long> selectTagIdsByArticleId(Long articleId);
+
+    /**
+     * 批量查询一批文章的全部标签关联
+     * @param articleIds 文章ID列表，调用方保证非空
+     * @return 关联列表（只填充 articleId、tagId）
+     */
+    List<ArticleTagRelation> selectByArticleIds(@Param("articleIds") Collection<Long> articleIds);
+
+    /**
+     * 删除文章与指定标签的关联
+     * @param articleId 文章ID
+     * @param tagIds 标签ID列表，调用方保证非空
+     * @return 删除的行数
+     */
+    int deleteByArticleIdAndTagIds(@Param("articleId") Long articleId, @Param("tagIds") Collection<Long> tagIds);
 }
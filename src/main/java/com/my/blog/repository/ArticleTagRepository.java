@@ -1,12 +1,17 @@
 package com.my.blog.repository;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
-import com.my.blog.entity.Article;
+import com.my.blog.dto.response.ArticleSummary;
+import com.my.blog.dto.response.Suggestion;
 import com.my.blog.entity.ArticleTag;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -24,15 +29,69 @@ public interface ArticleTagRepository extends BaseMapper<ArticleTag> {
      */
     ArticleTag selectByName(String tagName);
     
+    /**
+     * 根据标签名批量查询标签
+     * @param tagNames 标签名列表，调用方保证非空
+     * @return 已存在的标签
+     */
+    List<ArticleTag> selectByNames(@Param("tagNames") Collection<String> tagNames);
+
+    /**
+     * 批量创建标签，已存在的同名标签直接忽略（依赖 tag_name 唯一索引）
+     * @param tagNames 标签名列表，调用方保证非空
+     * @return 实际插入的行数
+     */
+    int insertIgnoreBatch(@Param("tagNames") Collection<String> tagNames);
+
     // 根据标签ID查找标签
     ArticleTag findById(Long tagId);
     
-    // 根据标签ID查找使用该标签的所有文章
-    List<Article> findArticlesByTagId(Long tagId);
+    /**
+     * 游标分页查询使用该标签的已发布文章（不含正文），按 (publish_time, article_id) 倒序
+     * @param tagId 标签ID
+     * @param cursorTime 游标位置的发布时间，为 null 时从第一条开始
+     * @param cursorId 游标位置的文章ID
+     * @param limit 最多返回的条数
+     * @return 文章列表
+     */
+    List<ArticleSummary> findArticlesByTagId(@Param("tagId") Long tagId,
+                                             @Param("cursorTime") LocalDateTime cursorTime,
+                                             @Param("cursorId") Long cursorId,
+                                             @Param("limit") int limit);
     
     // 根据文章ID查找该文章的所有标签
     List<ArticleTag> findTagsByArticleId(Long articleId);
     
     // 根据标签名删除标签
     int deleteByName(String tagName);
+
+    /**
+     * 查询所有标签及其使用次数，用于构建输入提示索引
+     * @return 提示项列表（文本为标签名，权重为关联的文章数）
+     */
+    List<Suggestion> selectTagSuggestions();
+
+    /**
+     * 统计每个标签的已发布文章数（没有已发布文章的标签不返回），用于校正文章数
+     * @return 标签列表（只填充 tagId、articleCount）
+     */
+    @Select("SELECT r.tag_id, COUNT(*) AS article_count FROM article_tag_relation r " +
+            "JOIN article a ON a.article_id = r.article_id WHERE a.status != 'draft' GROUP BY r.tag_id")
+    List<ArticleTag> selectPublishedArticleCounts();
+
+    /**
+     * 读取数据库中保存的各标签文章数（最近一次校正的值，需要 article_count 列）
+     * @return 标签列表（只填充 tagId、articleCount）
+     */
+    @Select("SELECT tag_id, article_count FROM article_tag")
+    List<ArticleTag> selectStoredArticleCounts();
+
+    /**
+     * 写回标签的已发布文章数
+     * @param tagId 标签ID
+     * @param articleCount 文章数
+     * @return 受影响的行数
+     */
+    @Update("UPDATE article_tag SET article_count = #{articleCount} WHERE tag_id = #{tagId}")
+    int updateArticleCount(@Param("tagId") Long tagId, @Param("articleCount") long articleCount);
 }
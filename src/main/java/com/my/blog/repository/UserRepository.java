@@ -8,6 +8,7 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
+import java.util.Date;
 import java.util.List;
 
 @Mapper
@@ -38,6 +39,17 @@ public interface UserRepository extends BaseMapper<User> {
      */
     IPage<User> selectAllUsers(Page<User> page);
 
+    /**
+     * 游标分页查询用户，按 (created_at, id) 倒序
+     * @param cursorTime 游标位置的创建时间，为 null 时从第一条开始
+     * @param cursorId 游标位置的用户ID
+     * @param limit 最多返回的条数
+     * @return 用户列表（不含密码）
+     */
+    List<User> selectUsersAfter(@Param("cursorTime") Date cursorTime,
+                                @Param("cursorId") Long cursorId,
+                                @Param("limit") int limit);
+
     //更新用户角色
     int updateUserRole(@Param("username") String username, @Param("role") String role);
 
@@ -0,0 +1,467 @@
+package com.my.blog.search;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * 压缩位图（Roaring 结构）：按ID的高位分桶，每个桶保存低16位
+ * 桶内元素不超过 4096 个时用有序 char 数组（每个元素2字节），超过时用 65536 位的位图（固定8KB）
+ * 稀疏的标签与密集的分类都能用较少的内存表示，交集/并集/差集按桶逐个计算
+ * 非线程安全；and/or/andNot 返回新位图，不修改参与运算的位图
+ */
+public class CompressedBitmap {
+
+    private static final int ARRAY_MAX = 4096;
+
+    private static final int BITMAP_WORDS = 1024;
+
+    private long[] keys = new long[0];  // 桶的高位，升序
+
+    private Container[] containers = new Container[0];
+
+    private int bucketCount;
+
+    /**
+     * 添加元素
+     * @param value 非负ID
+     */
+    public void add(long value) {
+        long key = value >>> 16;
+        char low = (char) value;
+        int index = indexOf(key);
+        if (index >= 0) {
+            containers[index] = containers[index].add(low);
+            return;
+        }
+        insertBucket(-index - 1, key, new ArrayContainer().add(low));
+    }
+
+    /**
+     * 删除元素
+     * @param value 非负ID
+     */
+    public void remove(long value) {
+        int index = indexOf(value >>> 16);
+        if (index < 0) {
+            return;
+        }
+        Container container = containers[index].remove((char) value);
+        if (container.cardinality() == 0) {
+            removeBucket(index);
+        } else {
+            containers[index] = container;
+        }
+    }
+
+    public boolean contains(long value) {
+        int index = indexOf(value >>> 16);
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    public long cardinality() {
+        long total = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            total += containers[i].cardinality();
+        }
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return bucketCount == 0;
+    }
+
+    /**
+     * 按升序遍历全部元素
+     * @param consumer 回调
+     */
+    public void forEach(LongConsumer consumer) {
+        for (int i = 0; i < bucketCount; i++) {
+            containers[i].forEach(keys[i] << 16, consumer);
+        }
+    }
+
+    /**
+     * 交集
+     * @param other 另一个位图
+     * @return 新位图
+     */
+    public CompressedBitmap and(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < bucketCount && j < other.bucketCount) {
+            int compare = Long.compare(keys[i], other.keys[j]);
+            if (compare < 0) {
+                i++;
+            } else if (compare > 0) {
+                j++;
+            } else {
+                result.appendIfNotEmpty(keys[i], containers[i].and(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 并集
+     * @param other 另一个位图
+     * @return 新位图
+     */
+    public CompressedBitmap or(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < bucketCount || j < other.bucketCount) {
+            int compare = i == bucketCount ? 1 : j == other.bucketCount ? -1 : Long.compare(keys[i], other.keys[j]);
+            if (compare < 0) {
+                result.appendIfNotEmpty(keys[i], containers[i].copy());
+                i++;
+            } else if (compare > 0) {
+                result.appendIfNotEmpty(other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.appendIfNotEmpty(keys[i], containers[i].or(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 差集（属于本位图但不属于另一个位图）
+     * @param other 另一个位图
+     * @return 新位图
+     */
+    public CompressedBitmap andNot(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int j = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            while (j < other.bucketCount && other.keys[j] < keys[i]) {
+                j++;
+            }
+            if (j < other.bucketCount && other.keys[j] == keys[i]) {
+                result.appendIfNotEmpty(keys[i], containers[i].andNot(other.containers[j]));
+            } else {
+                result.appendIfNotEmpty(keys[i], containers[i].copy());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 复制
+     * @return 新位图
+     */
+    public CompressedBitmap copy() {
+        CompressedBitmap result = new CompressedBitmap();
+        for (int i = 0; i < bucketCount; i++) {
+            result.appendIfNotEmpty(keys[i], containers[i].copy());
+        }
+        return result;
+    }
+
+    private int indexOf(long key) {
+        return Arrays.binarySearch(keys, 0, bucketCount, key);
+    }
+
+    // 运算结果按桶升序追加
+    private void appendIfNotEmpty(long key, Container container) {
+        if (container.cardinality() > 0) {
+            insertBucket(bucketCount, key, container);
+        }
+    }
+
+    private void insertBucket(int index, long key, Container container) {
+        if (bucketCount == keys.length) {
+            int capacity = Math.max(4, bucketCount * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, bucketCount - index);
+        System.arraycopy(containers, index, containers, index + 1, bucketCount - index);
+        keys[index] = key;
+        containers[index] = container;
+        bucketCount++;
+    }
+
+    private void removeBucket(int index) {
+        System.arraycopy(keys, index + 1, keys, index, bucketCount - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, bucketCount - index - 1);
+        containers[--bucketCount] = null;
+    }
+
+    /**
+     * 桶：保存同一高位下的低16位，修改操作返回（可能已转换类型的）新桶
+     */
+    private abstract static class Container {
+
+        abstract Container add(char value);
+
+        abstract Container remove(char value);
+
+        abstract boolean contains(char value);
+
+        abstract int cardinality();
+
+        abstract void forEach(long base, LongConsumer consumer);
+
+        abstract Container copy();
+
+        abstract BitmapContainer toBitmap();
+
+        Container and(Container other) {
+            // 以元素少的一方为主遍历
+            if (this instanceof ArrayContainer || other instanceof ArrayContainer) {
+                ArrayContainer array = this instanceof ArrayContainer ? (ArrayContainer) this : (ArrayContainer) other;
+                Container probe = array == this ? other : this;
+                ArrayContainer result = new ArrayContainer(array.size);
+                for (int i = 0; i < array.size; i++) {
+                    if (probe.contains(array.values[i])) {
+                        result.values[result.size++] = array.values[i];
+                    }
+                }
+                return result;
+            }
+            long[] words = new long[BITMAP_WORDS];
+            long[] left = ((BitmapContainer) this).words;
+            long[] right = ((BitmapContainer) other).words;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                words[i] = left[i] & right[i];
+            }
+            return new BitmapContainer(words).shrink();
+        }
+
+        Container or(Container other) {
+            if (this instanceof ArrayContainer left && other instanceof ArrayContainer right
+                    && left.size + right.size <= ARRAY_MAX) {
+                return left.merge(right);
+            }
+            BitmapContainer result = toBitmap();
+            long[] words = result.words;
+            if (other instanceof BitmapContainer bitmap) {
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    words[i] |= bitmap.words[i];
+                }
+            } else {
+                ArrayContainer array = (ArrayContainer) other;
+                for (int i = 0; i < array.size; i++) {
+                    words[array.values[i] >>> 6] |= 1L << array.values[i];
+                }
+            }
+            return result.recount().shrink();
+        }
+
+        Container andNot(Container other) {
+            if (this instanceof ArrayContainer array) {
+                ArrayContainer result = new ArrayContainer(array.size);
+                for (int i = 0; i < array.size; i++) {
+                    if (!other.contains(array.values[i])) {
+                        result.values[result.size++] = array.values[i];
+                    }
+                }
+                return result;
+            }
+            BitmapContainer result = toBitmap();
+            long[] words = result.words;
+            if (other instanceof BitmapContainer bitmap) {
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    words[i] &= ~bitmap.words[i];
+                }
+            } else {
+                ArrayContainer array = (ArrayContainer) other;
+                for (int i = 0; i < array.size; i++) {
+                    words[array.values[i] >>> 6] &= ~(1L << array.values[i]);
+                }
+            }
+            return result.recount().shrink();
+        }
+    }
+
+    private static final class ArrayContainer extends Container {
+
+        private char[] values;
+
+        private int size;
+
+        private ArrayContainer() {
+            this(4);
+        }
+
+        private ArrayContainer(int capacity) {
+            this.values = new char[Math.max(capacity, 1)];
+        }
+
+        @Override
+        Container add(char value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+            if (index >= 0) {
+                return this;
+            }
+            if (size == ARRAY_MAX) {
+                return toBitmap().add(value);
+            }
+            index = -index - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, size * 2));
+            }
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = value;
+            size++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, size - index - 1);
+                size--;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return size;
+        }
+
+        @Override
+        void forEach(long base, LongConsumer consumer) {
+            for (int i = 0; i < size; i++) {
+                consumer.accept(base | values[i]);
+            }
+        }
+
+        @Override
+        Container copy() {
+            ArrayContainer result = new ArrayContainer(size);
+            System.arraycopy(values, 0, result.values, 0, size);
+            result.size = size;
+            return result;
+        }
+
+        @Override
+        BitmapContainer toBitmap() {
+            long[] words = new long[BITMAP_WORDS];
+            for (int i = 0; i < size; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            return new BitmapContainer(words, size);
+        }
+
+        // 两个有序数组归并，调用方保证结果不超过 ARRAY_MAX
+        private ArrayContainer merge(ArrayContainer other) {
+            ArrayContainer result = new ArrayContainer(size + other.size);
+            int i = 0;
+            int j = 0;
+            while (i < size || j < other.size) {
+                char value;
+                if (j == other.size || (i < size && values[i] < other.values[j])) {
+                    value = values[i++];
+                } else if (i == size || other.values[j] < values[i]) {
+                    value = other.values[j++];
+                } else {
+                    value = values[i++];
+                    j++;
+                }
+                result.values[result.size++] = value;
+            }
+            return result;
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+
+        private final long[] words;
+
+        private int cardinality;
+
+        private BitmapContainer(long[] words) {
+            this.words = words;
+            recount();
+        }
+
+        private BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            long mask = 1L << value;
+            if ((words[value >>> 6] & mask) == 0) {
+                words[value >>> 6] |= mask;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            long mask = 1L << value;
+            if ((words[value >>> 6] & mask) != 0) {
+                words[value >>> 6] &= ~mask;
+                cardinality--;
+            }
+            return shrink();
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        void forEach(long base, LongConsumer consumer) {
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    consumer.accept(base | ((long) i << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        BitmapContainer toBitmap() {
+            return (BitmapContainer) copy();
+        }
+
+        private BitmapContainer recount() {
+            int count = 0;
+            for (long word : words) {
+                count += Long.bitCount(word);
+            }
+            cardinality = count;
+            return this;
+        }
+
+        // 元素不多时转回数组桶，节省内存
+        private Container shrink() {
+            if (cardinality > ARRAY_MAX) {
+                return this;
+            }
+            ArrayContainer array = new ArrayContainer(cardinality);
+            forEach(0, value -> array.values[array.size++] = (char) value);
+            return array;
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.my.blog.search;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * 磁盘上的不可变倒排索引段，启动时以只读方式内存映射，查询直接读取映射区，不整体加载到堆内
+ * 文件结构（大端序）：
+ *   头部：魔数 int, 格式版本 int, 构建水位 long, 文档数 int, 词项数 int, 文档总长度 long
+ *   文档表：文档数 x (文章ID long, 文档长度 int)，下标即文档序号
+ *   词项表：词项数 x (词项偏移 int, 倒排表偏移 int, 文档频率 int)，按词项字典序排列，查询时二分查找
+ *   词项区：每个词项为 (UTF-8 字节数 short, 字节)
+ *   倒排区：每个词项 文档频率 x (文档序号 int, 词频 int)
+ */
+public class IndexSegment {
+
+    private static final int MAGIC = 0x42534547;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int HEADER_BYTES = 32;
+
+    private static final int DOC_ENTRY_BYTES = 12;
+
+    private static final int TERM_ENTRY_BYTES = 12;
+
+    private static final int POSTING_BYTES = 8;
+
+    /**
+     * 倒排表遍历回调
+     */
+    @FunctionalInterface
+    public interface PostingConsumer {
+        void accept(int ordinal, int frequency);
+    }
+
+    /**
+     * 词项遍历回调：词项, 倒排表读取函数（返回文档频率）
+     */
+    @FunctionalInterface
+    public interface TermVisitor {
+        void visit(String term, ToIntFunction<PostingConsumer> postings);
+    }
+
+    private final Path path;
+
+    private final ByteBuffer buffer;
+
+    private final long watermark;
+
+    private final int docCount;
+
+    private final int termCount;
+
+    private final long totalLength;
+
+    private final int termTableOffset;
+
+    /**
+     * 文章ID -> 文档序号（常驻堆内，只有ID没有内容）
+     */
+    private final Map<Long, Integer> ordinals;
+
+    private IndexSegment(Path path, ByteBuffer buffer) {
+        this.path = path;
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IllegalStateException("索引段格式不正确: " + path);
+        }
+        this.watermark = buffer.getLong(8);
+        this.docCount = buffer.getInt(16);
+        this.termCount = buffer.getInt(20);
+        this.totalLength = buffer.getLong(24);
+        this.termTableOffset = HEADER_BYTES + docCount * DOC_ENTRY_BYTES;
+
+        this.ordinals = new HashMap<>(Math.max(16, docCount * 4 / 3 + 1));
+        for (int ordinal = 0; ordinal < docCount; ordinal++) {
+            ordinals.put(articleIdAt(ordinal), ordinal);
+        }
+    }
+
+    /**
+     * 空索引段（首次构建之前使用）
+     * @return 不含任何文档的索引段
+     */
+    public static IndexSegment empty() {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(0, MAGIC).putInt(4, FORMAT_VERSION);
+        return new IndexSegment(null, header);
+    }
+
+    /**
+     * 内存映射打开索引段文件
+     * @param path 文件路径
+     * @return 索引段
+     * @throws IOException 读取失败
+     */
+    public static IndexSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("索引段超过2GB，无法映射: " + path);
+            }
+            // 映射建立后与通道无关，关闭通道不影响读取
+            return new IndexSegment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * 写入索引段文件：先写临时文件，完成后原子重命名，崩溃时不会留下写了一半的段
+     * @param path 目标路径
+     * @param watermark 构建水位（毫秒时间戳），此时间之后修改的文章在启动时需要重新索引
+     * @param articleIds 文档表：下标为文档序号
+     * @param lengths 各文档的长度，与 articleIds 一一对应
+     * @param postings 词项 -> 倒排表（文档序号与词频交替排列），须按词项字典序排序
+     * @throws IOException 写入失败
+     */
+    public static void write(Path path, long watermark, List<Long> articleIds, List<Integer> lengths,
+                             SortedMap<String, int[]> postings) throws IOException {
+        List<byte[]> termBytes = new ArrayList<>(postings.size());
+        long totalLength = 0;
+        for (int length : lengths) {
+            totalLength += length;
+        }
+        long termDataBytes = 0;
+        for (String term : postings.keySet()) {
+            byte[] bytes = term.getBytes(StandardCharsets.UTF_8);
+            termBytes.add(bytes);
+            termDataBytes += 2 + bytes.length;
+        }
+
+        long termDataOffset = HEADER_BYTES + (long) articleIds.size() * DOC_ENTRY_BYTES
+                + (long) postings.size() * TERM_ENTRY_BYTES;
+        long postingsOffset = termDataOffset + termDataBytes;
+        long fileBytes = postingsOffset;
+        for (int[] list : postings.values()) {
+            fileBytes += (long) list.length / 2 * POSTING_BYTES;
+        }
+        if (fileBytes > Integer.MAX_VALUE) {
+            throw new IOException("索引段超过2GB，请改用外部检索引擎");
+        }
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(watermark);
+            out.writeInt(articleIds.size());
+            out.writeInt(postings.size());
+            out.writeLong(totalLength);
+
+            for (int i = 0; i < articleIds.size(); i++) {
+                out.writeLong(articleIds.get(i));
+                out.writeInt(lengths.get(i));
+            }
+
+            int termOffset = (int) termDataOffset;
+            int postingOffset = (int) postingsOffset;
+            int index = 0;
+            for (int[] list : postings.values()) {
+                int df = list.length / 2;
+                out.writeInt(termOffset);
+                out.writeInt(postingOffset);
+                out.writeInt(df);
+                termOffset += 2 + termBytes.get(index++).length;
+                postingOffset += df * POSTING_BYTES;
+            }
+
+            for (byte[] bytes : termBytes) {
+                out.writeShort(bytes.length);
+                out.write(bytes);
+            }
+
+            for (int[] list : postings.values()) {
+                for (int value : list) {
+                    out.writeInt(value);
+                }
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 遍历某个词项的倒排表
+     * @param term 词项
+     * @param consumer 回调
+     * @return 文档频率（词项不存在时为0）
+     */
+    public int forEachPosting(String term, PostingConsumer consumer) {
+        int index = findTerm(term);
+        if (index < 0) {
+            return 0;
+        }
+        return readPostings(index, consumer);
+    }
+
+    /**
+     * 按字典序遍历全部词项及其倒排表（合并索引段时使用）
+     * @param visitor 回调：词项, 倒排表读取函数
+     */
+    public void forEachTerm(TermVisitor visitor) {
+        for (int index = 0; index < termCount; index++) {
+            int termIndex = index;
+            visitor.visit(termAt(index), consumer -> readPostings(termIndex, consumer));
+        }
+    }
+
+    /**
+     * 查询文章在本段中的文档序号
+     * @param articleId 文章ID
+     * @return 文档序号，不在本段中时返回 null
+     */
+    public Integer ordinalOf(long articleId) {
+        return ordinals.get(articleId);
+    }
+
+    public long articleIdAt(int ordinal) {
+        return buffer.getLong(HEADER_BYTES + ordinal * DOC_ENTRY_BYTES);
+    }
+
+    public int lengthAt(int ordinal) {
+        return buffer.getInt(HEADER_BYTES + ordinal * DOC_ENTRY_BYTES + 8);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getWatermark() {
+        return watermark;
+    }
+
+    public int getDocCount() {
+        return docCount;
+    }
+
+    public long getTotalLength() {
+        return totalLength;
+    }
+
+    private int readPostings(int termIndex, PostingConsumer consumer) {
+        int entry = termTableOffset + termIndex * TERM_ENTRY_BYTES;
+        int offset = buffer.getInt(entry + 4);
+        int df = buffer.getInt(entry + 8);
+        for (int i = 0; i < df; i++) {
+            int position = offset + i * POSTING_BYTES;
+            consumer.accept(buffer.getInt(position), buffer.getInt(position + 4));
+        }
+        return df;
+    }
+
+    // 词项表按 String.compareTo 排序，与写入时 TreeMap 的顺序一致
+    private int findTerm(String term) {
+        int low = 0;
+        int high = termCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int compare = termAt(middle).compareTo(term);
+            if (compare < 0) {
+                low = middle + 1;
+            } else if (compare > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private String termAt(int termIndex) {
+        int offset = buffer.getInt(termTableOffset + termIndex * TERM_ENTRY_BYTES);
+        int length = buffer.getShort(offset) & 0xFFFF;
+        byte[] bytes = new byte[length];
+        buffer.get(offset + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,57 @@
+package com.my.blog.search;
+
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 一篇文章分词后的正排信息：词 -> 加权词频，以及加权文档长度
+ * 标题中的词权重更高，命中标题的文章排在只有正文命中的文章之前
+ */
+@Getter
+public class IndexedDocument {
+
+    private static final int TITLE_WEIGHT = 3;
+
+    private static final int SUMMARY_WEIGHT = 1;
+
+    private static final int CONTENT_WEIGHT = 1;
+
+    private final long articleId;
+
+    private final Map<String, Integer> termFrequencies;
+
+    private final int length;
+
+    private IndexedDocument(long articleId, Map<String, Integer> termFrequencies, int length) {
+        this.articleId = articleId;
+        this.termFrequencies = termFrequencies;
+        this.length = length;
+    }
+
+    /**
+     * 对文章的标题、摘要、正文分词并统计加权词频
+     * @param articleId 文章ID
+     * @param title 标题
+     * @param summary 摘要
+     * @param content 正文
+     * @return 正排信息
+     */
+    public static IndexedDocument of(long articleId, String title, String summary, String content) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = addField(frequencies, title, TITLE_WEIGHT)
+                + addField(frequencies, summary, SUMMARY_WEIGHT)
+                + addField(frequencies, content, CONTENT_WEIGHT);
+        return new IndexedDocument(articleId, frequencies, length);
+    }
+
+    private static int addField(Map<String, Integer> frequencies, String text, int weight) {
+        int length = 0;
+        for (String token : TextTokenizer.tokenize(text)) {
+            frequencies.merge(token, weight, Integer::sum);
+            length += weight;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,210 @@
+package com.my.blog.search;
+
+import com.my.blog.dto.response.Suggestion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * 不可变的前缀提示索引
+ * 全部提示项按规范化文本排序存放在数组中，任一前缀对应数组中的一段连续区间（二分查找定位）：
+ * 区间不超过 SCAN_THRESHOLD 项时直接扫描取权重最高的几项；
+ * 更大的区间（短前缀）在构建时预先算好 Top-K，相当于只在压缩前缀树的“宽”节点上保存结果
+ * 查询只做两次二分查找加一次小范围扫描或一次哈希查找，与提示项总数基本无关
+ */
+public class PrefixIndex {
+
+    private static final int SCAN_THRESHOLD = 64;
+
+    private static final PrefixIndex EMPTY = new PrefixIndex(new String[0], new Suggestion[0], 0, Map.of());
+
+    private final String[] keys;
+
+    private final Suggestion[] values;
+
+    private final int topK;
+
+    /**
+     * 宽前缀 -> 权重最高的提示项下标（按权重降序）
+     */
+    private final Map<String, int[]> topByPrefix;
+
+    private PrefixIndex(String[] keys, Suggestion[] values, int topK, Map<String, int[]> topByPrefix) {
+        this.keys = keys;
+        this.values = values;
+        this.topK = topK;
+        this.topByPrefix = topByPrefix;
+    }
+
+    public static PrefixIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 构建索引
+     * @param suggestions 全部提示项
+     * @param topK 每个前缀最多返回的条数
+     * @return 索引
+     */
+    public static PrefixIndex build(Collection<Suggestion> suggestions, int topK) {
+        List<Map.Entry<String, Suggestion>> entries = new ArrayList<>(suggestions.size());
+        for (Suggestion suggestion : suggestions) {
+            String key = normalize(suggestion.getText());
+            if (!key.isEmpty()) {
+                entries.add(Map.entry(key, suggestion));
+            }
+        }
+        entries.sort(Map.Entry.comparingByKey());
+
+        String[] keys = new String[entries.size()];
+        Suggestion[] values = new Suggestion[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            keys[i] = entries.get(i).getKey();
+            values[i] = entries.get(i).getValue();
+        }
+
+        Map<String, int[]> topByPrefix = new HashMap<>();
+        collectWidePrefixes(keys, values, topK, 0, keys.length, 0, "", topByPrefix);
+        return new PrefixIndex(keys, values, topK, topByPrefix);
+    }
+
+    /**
+     * 规范化文本：去掉首尾空白、连续空白合并为一个空格、转小写
+     * @param text 文本
+     * @return 规范化后的文本
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder builder = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = builder.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    builder.append(' ');
+                    pendingSpace = false;
+                }
+                builder.append(Character.toLowerCase(c));
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 查询以指定前缀开头的提示项
+     * @param prefix 前缀
+     * @param limit 最多返回的条数（不超过构建时的 topK）
+     * @return 按权重降序排列的提示项
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        int count = Math.min(limit, topK);
+        if (key.isEmpty() || count <= 0) {
+            return List.of();
+        }
+
+        int low = lowerBound(key);
+        int high = lowerBound(key + Character.MAX_VALUE);
+        if (low >= high) {
+            return List.of();
+        }
+
+        int[] top = high - low > SCAN_THRESHOLD ? topByPrefix.get(key) : null;
+        if (top == null) {
+            top = topIndexes(values, low, high, count);
+        }
+        List<Suggestion> result = new ArrayList<>(Math.min(count, top.length));
+        for (int i = 0; i < top.length && i < count; i++) {
+            result.add(values[top[i]]);
+        }
+        return result;
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * 逐字符向下划分区间，自底向上合并 Top-K：父区间的 Top-K 只需在各子区间的 Top-K 中挑选，
+     * 每个提示项只参与一次完整扫描，构建耗时与提示项数量近似线性；只为超过扫描阈值的前缀保存结果
+     * @return 区间 [low, high) 中权重最高的提示项下标
+     */
+    private static int[] collectWidePrefixes(String[] keys, Suggestion[] values, int topK,
+                                             int low, int high, int depth, String prefix,
+                                             Map<String, int[]> topByPrefix) {
+        if (high - low <= SCAN_THRESHOLD) {
+            return topIndexes(values, low, high, topK);
+        }
+
+        List<Integer> candidates = new ArrayList<>();
+        int i = low;
+        while (i < high && keys[i].length() == depth) {
+            candidates.add(i++);  // 正好等于前缀的文本排在区间最前面，没有下一层
+        }
+        while (i < high) {
+            char c = keys[i].charAt(depth);
+            int j = i + 1;
+            while (j < high && keys[j].charAt(depth) == c) {
+                j++;
+            }
+            for (int index : collectWidePrefixes(keys, values, topK, i, j, depth + 1, prefix + c, topByPrefix)) {
+                candidates.add(index);
+            }
+            i = j;
+        }
+
+        int[] top = topIndexes(values, candidates, topK);
+        if (depth > 0) {
+            topByPrefix.put(prefix, top);
+        }
+        return top;
+    }
+
+    private static int[] topIndexes(Suggestion[] values, int low, int high, int count) {
+        List<Integer> indexes = new ArrayList<>(high - low);
+        for (int i = low; i < high; i++) {
+            indexes.add(i);
+        }
+        return topIndexes(values, indexes, count);
+    }
+
+    // 权重相同时按文本顺序，结果稳定
+    private static int[] topIndexes(Suggestion[] values, List<Integer> indexes, int count) {
+        Comparator<Integer> byWeight = Comparator.comparingLong((Integer index) -> values[index].getWeight())
+                .thenComparing(Comparator.reverseOrder());
+        PriorityQueue<Integer> heap = new PriorityQueue<>(count + 1, byWeight);
+        for (int index : indexes) {
+            heap.offer(index);
+            if (heap.size() > count) {
+                heap.poll();
+            }
+        }
+        int[] top = new int[heap.size()];
+        for (int i = top.length - 1; i >= 0; i--) {
+            top[i] = heap.poll();
+        }
+        return top;
+    }
+
+    private int lowerBound(String key) {
+        int index = Arrays.binarySearch(keys, key);
+        return index >= 0 ? firstEqual(index) : -index - 1;
+    }
+
+    private int firstEqual(int index) {
+        while (index > 0 && keys[index - 1].equals(keys[index])) {
+            index--;
+        }
+        return index;
+    }
+}
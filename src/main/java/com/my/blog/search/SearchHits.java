@@ -0,0 +1,24 @@
+package com.my.blog.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 一页检索结果
+ */
+@Data
+@AllArgsConstructor
+public class SearchHits {
+
+    /**
+     * 命中的文章总数
+     */
+    private long total;
+
+    /**
+     * 当前页的文章ID，按相关度从高到低排列
+     */
+    private List<Long> articleIds;
+}
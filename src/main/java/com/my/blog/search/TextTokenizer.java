@@ -0,0 +1,92 @@
+package com.my.blog.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 全文检索分词器
+ * 拉丁字母/数字连续片段整体作为一个词（转小写）；中日韩文字按相邻两字切分为二元词（bigram），
+ * 孤立的单个汉字保留为单字词；标点、空白与 Markdown 符号作为分隔符丢弃
+ * 建索引与查询使用同一套规则，查询“数据库”会被切分为“数据”“据库”两个词
+ */
+public final class TextTokenizer {
+
+    /**
+     * 单个拉丁词的最大长度，超出部分截断（避免 Base64、长链接等撑大词典）
+     */
+    private static final int MAX_WORD_LENGTH = 32;
+
+    private TextTokenizer() {
+    }
+
+    /**
+     * 切分文本
+     * @param text 文本，可为 null
+     * @return 词列表（保留重复，调用方据此统计词频）
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+
+        StringBuilder word = new StringBuilder();
+        List<Integer> cjkRun = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+
+            if (isCjk(codePoint)) {
+                flushWord(word, tokens);
+                cjkRun.add(codePoint);
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                flushCjk(cjkRun, tokens);
+                if (word.length() < MAX_WORD_LENGTH) {
+                    word.appendCodePoint(Character.toLowerCase(codePoint));
+                }
+            } else {
+                flushWord(word, tokens);
+                flushCjk(cjkRun, tokens);
+            }
+        }
+        flushWord(word, tokens);
+        flushCjk(cjkRun, tokens);
+        return tokens;
+    }
+
+    /**
+     * 判断是否为孤立单字词（索引中只有前后都不是汉字的单字才会被单独收录）
+     * @param token 词
+     * @return 是否为单个中日韩文字
+     */
+    public static boolean isSingleCjk(String token) {
+        return token.codePointCount(0, token.length()) == 1 && isCjk(token.codePointAt(0));
+    }
+
+    private static void flushWord(StringBuilder word, List<String> tokens) {
+        if (word.length() > 0) {
+            tokens.add(word.toString());
+            word.setLength(0);
+        }
+    }
+
+    private static void flushCjk(List<Integer> run, List<String> tokens) {
+        if (run.size() == 1) {
+            tokens.add(new String(Character.toChars(run.get(0))));
+        } else {
+            for (int j = 0; j + 1 < run.size(); j++) {
+                tokens.add(new StringBuilder().appendCodePoint(run.get(j)).appendCodePoint(run.get(j + 1)).toString());
+            }
+        }
+        run.clear();
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
@@ -2,6 +2,8 @@ package com.my.blog.service;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.my.blog.dto.request.ArticleUpdateDTO;
+import com.my.blog.dto.response.ArticleSummary;
+import com.my.blog.dto.response.CursorPage;
 import com.my.blog.entity.Article;
 
 public interface AdminArticleService {
@@ -10,9 +12,19 @@ public interface AdminArticleService {
      * 获取所有文章（分页）
      * @param page 页码
      * @param size 每页大小
-     * @return 文章分页结果
+     * @param withTotal 是否统计总条数
+     * @return 文章分页结果（列表列，不含正文）
      */
-    IPage<Article> getAllArticles(int page, int size);
+    IPage<ArticleSummary> getAllArticles(int page, int size, boolean withTotal);
+
+    /**
+     * 游标分页获取所有文章（含草稿）
+     * @param cursor 上一页返回的 nextCursor，第一页传 null
+     * @param size 每页大小
+     * @param withTotal 是否统计总条数
+     * @return 文章列表游标分页结果
+     */
+    CursorPage<ArticleSummary> getAllArticlesByCursor(String cursor, int size, boolean withTotal);
 
     /**
      * 更新文章内容
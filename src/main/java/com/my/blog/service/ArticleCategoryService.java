@@ -1,7 +1,8 @@
 package com.my.blog.service;
 
 import com.my.blog.dto.request.ArticleCategoryCreateDTO;
-import com.my.blog.entity.Article;
+import com.my.blog.dto.response.ArticleSummary;
+import com.my.blog.dto.response.CursorPage;
 import com.my.blog.entity.ArticleCategory;
 
 import java.util.List;
@@ -15,6 +16,13 @@ public interface ArticleCategoryService {
     int deleteByName(String categoryName);
 
 
-    // 根据分类名称获取该分类下的所有文章
-    List<Article> getArticlesByCategoryName(String categoryName);
+    /**
+     * 游标分页获取分类下的已发布文章，按发布时间倒序
+     * @param categoryName 分类名
+     * @param cursor 上一页返回的 nextCursor，第一页传 null
+     * @param size 每页大小
+     * @param withTotal 是否返回总条数
+     * @return 文章列表游标分页结果
+     */
+    CursorPage<ArticleSummary> getArticlesByCategoryName(String categoryName, String cursor, int size, boolean withTotal);
 }
@@ -2,7 +2,10 @@ package com.my.blog.service;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.my.blog.dto.request.ArticleCreateDTO;
+import com.my.blog.dto.response.ArticleSummary;
+import com.my.blog.dto.response.CursorPage;
 import com.my.blog.entity.Article;
+import com.my.blog.utils.CacheVersion;
 
 import java.util.List;
 
@@ -15,9 +18,38 @@ public interface ArticleService {
 
     int deleteArticleByAuthorId(Long authorId);
 
-    List selectArticleByTitle(String title);
+    /**
+     * 全文检索已发布文章（标题、摘要、正文），按相关度排序
+     * @param keyword 关键字
+     * @param page 页码（从1开始）
+     * @param size 每页大小
+     * @return 文章列表分页结果
+     */
+    IPage<ArticleSummary> searchArticles(String keyword, int page, int size);
+
+    IPage<ArticleSummary> getAllArticles(int page, int size, boolean withTotal);
+
+    /**
+     * 按标签/分类组合条件过滤已发布文章，按发布时间倒序分页
+     * @param allTagIds 必须全部带有的标签（AND），可为 null
+     * @param anyTagIds 至少带有其中一个的标签（OR），可为 null
+     * @param excludedTagIds 不能带有的标签（NOT），可为 null
+     * @param categoryName 分类名（包含其子分类），为空时不限分类
+     * @param page 页码（从1开始）
+     * @param size 每页大小
+     * @return 文章列表分页结果
+     */
+    IPage<ArticleSummary> filterArticles(List<Long> allTagIds, List<Long> anyTagIds, List<Long> excludedTagIds,
+                                         String categoryName, int page, int size);
 
-    IPage<Article> getAllArticles(int page, int size);
+    /**
+     * 游标分页获取已发布文章列表
+     * @param cursor 上一页返回的 nextCursor，第一页传 null
+     * @param size 每页大小
+     * @param withTotal 是否统计总条数
+     * @return 文章列表游标分页结果
+     */
+    CursorPage<ArticleSummary> getArticlesByCursor(String cursor, int size, boolean withTotal);
 
     /**
      * 根据ID查询文章
@@ -26,6 +58,27 @@ public interface ArticleService {
      */
     Article getArticleById(Long articleId);
 
+    /**
+     * 根据ID查询已发布文章（优先走缓存，不计浏览量），用于计算条件请求的校验值
+     * @param articleId 文章ID
+     * @return 文章
+     */
+    Article findArticleById(Long articleId);
+
+    /**
+     * 获取文章详情的校验版本（版本号 + 最近变更时间），不加载文章正文
+     * @param articleId 文章ID
+     * @return 校验版本，尚未记录或读取失败时返回 null
+     */
+    CacheVersion getArticleVersion(Long articleId);
+
+    /**
+     * 记一次浏览，并返回带未落库浏览量的文章副本
+     * @param article findArticleById 返回的文章
+     * @return 文章详情
+     */
+    Article recordView(Article article);
+
     // 添加增加浏览量的方法
     void incrementViewCount(Long articleId);
 
@@ -1,7 +1,25 @@
 package com.my.blog.service;
 
+import com.my.blog.dto.response.ArticleSummary;
+
+import java.util.Collection;
 import java.util.List;
 
 public interface ArticleTagRelationService {
     void deleteByArticleIds(List<Long> articleIds);
+
+    /**
+     * 按标签名同步文章的标签：不存在的标签自动创建，只增删实际变化的关联
+     * @param articleId 文章ID
+     * @param tagNames 文章最终应有的标签名
+     * @return 标签或关联是否发生了变化
+     */
+    boolean syncTagsByName(Long articleId, Collection<String> tagNames);
+
+    /**
+     * 为一页文章列表批量填充标签：一次 IN 查询取出全部关联，标签名从标签字典读取
+     * @param summaries 文章列表项
+     * @return 传入的列表（已填充 tags）
+     */
+    List<ArticleSummary> attachTags(List<ArticleSummary> summaries);
 }
\ No newline at end of file
@@ -1,7 +1,8 @@
 package com.my.blog.service;
 
 import com.my.blog.dto.request.ArticleTagCreateDTO;
-import com.my.blog.entity.Article;
+import com.my.blog.dto.response.ArticleSummary;
+import com.my.blog.dto.response.CursorPage;
 import com.my.blog.entity.ArticleCategory;
 import com.my.blog.entity.ArticleTag;
 
@@ -19,6 +20,14 @@ public interface ArticleTagService {
     // 根据文章ID获取所有标签
     List<ArticleTag> getTagsByArticleId(Long articleId);
 
-    List<Article> getArticlesByTagId(Long tagId);
+    /**
+     * 游标分页获取使用该标签的已发布文章，按发布时间倒序
+     * @param tagId 标签ID
+     * @param cursor 上一页返回的 nextCursor，第一页传 null
+     * @param size 每页大小
+     * @param withTotal 是否返回总条数
+     * @return 文章列表游标分页结果
+     */
+    CursorPage<ArticleSummary> getArticlesByTagId(Long tagId, String cursor, int size, boolean withTotal);
 
 }
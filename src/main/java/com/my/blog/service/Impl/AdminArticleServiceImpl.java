@@ -5,22 +5,21 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.my.blog.dto.request.ArticleCategoryCreateDTO;
 import com.my.blog.dto.request.ArticleUpdateDTO;
+import com.my.blog.dto.response.ArticleSummary;
+import com.my.blog.dto.response.CursorPage;
 import com.my.blog.entity.Article;
-import com.my.blog.entity.ArticleTag;
 import com.my.blog.exception.CustomException;
 import com.my.blog.exception.ErrorCode;
 import com.my.blog.repository.ArticleRepository;
-import com.my.blog.repository.ArticleTagRepository;
 import com.my.blog.service.AdminArticleService;
 import com.my.blog.service.ArticleTagRelationService;
-import com.my.blog.utils.RedisUtils;
+import com.my.blog.utils.PageCursor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -28,17 +27,39 @@ import java.util.List;
 public class AdminArticleServiceImpl implements AdminArticleService {
 
     private final ArticleRepository articleRepository;
-    private final ArticleTagRepository articleTagRepository;
 
     private final ArticleTagRelationService articleTagRelationService;
 
     @Autowired
-    private RedisUtils redisUtils;
+    private CacheInvalidationService cacheInvalidationService; // 事务提交后统一失效缓存
+
+    @Autowired
+    private ArticleCountService articleCountService; // 标签/分类已发布文章数
+
+    @Override
+    public IPage<ArticleSummary> getAllArticles(int page, int size, boolean withTotal) {
+        // 管理端列表包含草稿，同样不加载正文
+        Page<ArticleSummary> pageParam = new Page<>(page, size, withTotal);
+        IPage<ArticleSummary> result = articleRepository.selectSummaryPage(pageParam, true);
+        articleTagRelationService.attachTags(result.getRecords());
+        return result;
+    }
 
     @Override
-    public IPage<Article> getAllArticles(int page, int size) {
-        Page<Article> pageParam = new Page<>(page, size);
-        return articleRepository.selectPage(pageParam, new QueryWrapper<Article>().orderByDesc("publish_time"));
+    public CursorPage<ArticleSummary> getAllArticlesByCursor(String cursor, int size, boolean withTotal) {
+        PageCursor position = PageCursor.decode(cursor);
+        int pageSize = CursorPage.normalizeSize(size);
+
+        List<ArticleSummary> rows = articleRepository.selectSummariesAfter(
+                position == null ? null : position.getTime(),
+                position == null ? null : position.getId(),
+                pageSize + 1, true);
+
+        Long total = withTotal ? articleRepository.selectCount(null) : null;
+        CursorPage<ArticleSummary> result = CursorPage.of(rows, pageSize,
+                last -> PageCursor.encode(last.getPublishTime(), last.getArticleId()), total);
+        articleTagRelationService.attachTags(result.getRecords());
+        return result;
     }
 
     @Override
@@ -59,43 +80,15 @@ public class AdminArticleServiceImpl implements AdminArticleService {
         // 保存文章
         articleRepository.updateById(article);
 
-        //当文章状态变更时，缓存会被正确清除，确保下次获取文章时从数据库读取最新状态
-        // 新增：当状态变为发布时清除缓存
-        if ("approved".equals(article.getStatus())) {
-            String cacheKey = "article:" + articleId;
-            redisUtils.delete(cacheKey);
-        }
+        // 事务提交后清除缓存，确保下次获取文章时从数据库读取最新内容
+        cacheInvalidationService.articleChanged(articleId);
 
-        // 处理标签
+        // 处理标签：只增删实际变化的关联，标签未变时不产生写入
         if (articleUpdateDTO.getTags() != null && !articleUpdateDTO.getTags().isEmpty()) {
-            // 先删除原有的标签关联
-            articleRepository.deleteArticleTagRelations(articleId);
-            
-            // 添加新的标签关联
-            List<ArticleTag> existingTags = new ArrayList<>();
-            for (String tagName : articleUpdateDTO.getTags()) {
-                // 查找标签是否存在
-                ArticleTag tag = articleTagRepository.selectByName(tagName);
-                if (tag == null) {
-                    // 创建新标签
-                    tag = new ArticleTag();
-                    tag.setTagName(tagName);
-                    articleTagRepository.insert(tag);
-
-                    // 检查ID是否回填，如果没有回填则手动查询
-                    if (tag.getTagId() == null) {
-                        tag = articleTagRepository.selectByName(tagName);
-                        if (tag == null) {
-                            throw new CustomException(ErrorCode.OPERATION_FAILED);
-                        }
-                    }
-                }
-                existingTags.add(tag);
-            }
-            
-            // 建立文章和标签的关联
-            for (ArticleTag tag : existingTags) {
-                articleRepository.insertArticleTagRelation(articleId, tag.getTagId());
+            ArticleCountService.Contribution before = articleCountService.snapshot(articleId);
+            if (articleTagRelationService.syncTagsByName(articleId, articleUpdateDTO.getTags())) {
+                articleCountService.changed(before, articleCountService.snapshot(articleId));
+                cacheInvalidationService.tagsChanged();
             }
         }
         
@@ -110,28 +103,44 @@ public class AdminArticleServiceImpl implements AdminArticleService {
         if (article == null) {
             throw new CustomException(ErrorCode.ARTICLE_NOT_FOUND);
         }
+        ArticleCountService.Contribution before = articleCountService.snapshot(articleId);
         
         // 删除文章标签关联
         articleRepository.deleteArticleTagRelations(articleId);
         
         // 删除文章
         articleRepository.deleteById(articleId);
+
+        // 提交后清除缓存并写入负缓存
+        articleCountService.changed(before, ArticleCountService.Contribution.NONE);
+        cacheInvalidationService.articlesDeleted(List.of(articleId));
+        cacheInvalidationService.tagsChanged();
+        cacheInvalidationService.categoriesChanged();
     }
 
     @Override
+    @Transactional
     public void reviewArticle(Long articleId, boolean approved, String reason) {
         // 检查文章是否存在
         Article article = articleRepository.selectById(articleId);
         if (article == null) {
             throw new CustomException(ErrorCode.ARTICLE_NOT_FOUND);
         }
+        ArticleCountService.Contribution before = articleCountService.snapshot(articleId);
         
         // 更新文章状态
         article.setStatus(approved ? "approved" : "rejected");
         if (!approved && reason != null) {
             article.setRejectReason(reason);
         }
+        article.setUpdateTime(LocalDateTime.now());  // 状态变化同样刷新修改时间（详情接口的 Last-Modified）
         
         articleRepository.updateById(article);
+
+        // 审核后文章对外可见：提交后加入布隆过滤器，并清除旧缓存与负缓存
+        articleCountService.changed(before, articleCountService.snapshot(articleId));
+        cacheInvalidationService.articlePublished(articleId);
+        cacheInvalidationService.tagsChanged();
+        cacheInvalidationService.categoriesChanged();
     }
 }
\ No newline at end of file
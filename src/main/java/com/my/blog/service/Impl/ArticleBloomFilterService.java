@@ -0,0 +1,241 @@
+package com.my.blog.service.Impl;
+
+import com.my.blog.repository.ArticleRepository;
+import com.my.blog.utils.BloomFilter;
+import com.my.blog.utils.RedisUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 已发布文章ID的布隆过滤器（缓存穿透防护）
+ * 启动时从数据库构建，文章审核通过后加入；新增的ID通过 Redis Pub/Sub 同步给其他节点
+ * Pub/Sub 不保证送达（订阅断开期间的消息会丢失），因此：
+ * 1. 定期从数据库重建（cache.article.bloom-rebuild-millis），丢失的新增最多在一个周期后补上
+ * 2. 大于构建时最大文章ID（水位线）、但不超过当前最大文章ID（ID上限）的ID放行，交给缓存与数据库判断，
+ *    新创建并发布的文章不会被误拦；ID上限定期从数据库刷新（cache.article.bloom-id-limit-refresh-millis），
+ *    文章发布时也会即时抬高，超过ID上限的ID一定不存在，直接拦截，不查数据库
+ * 文章删除后无法从布隆过滤器移除，由负缓存兜底
+ */
+@Slf4j
+@Service
+public class ArticleBloomFilterService implements ApplicationRunner, MessageListener {
+
+    /**
+     * 布隆过滤器新增ID广播频道
+     */
+    public static final String ADD_CHANNEL = "cache:bloom:article";
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private RedisUtils redisUtils;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Value("${cache.article.bloom-expected-insertions:100000}")
+    private long expectedInsertions;  // 预计容量（实际容量取它与已发布文章数两倍中的较大值）
+
+    @Value("${cache.article.bloom-fpp:0.01}")
+    private double falsePositiveRate;  // 误判率
+
+    /**
+     * 构建完成前为 null，此时所有ID都视为可能存在（不拦截）
+     */
+    private volatile BloomFilter filter;
+
+    private volatile long capacity;
+
+    /**
+     * 构建时已发布文章的最大ID，之后创建的文章ID都大于它
+     */
+    private volatile long watermark = Long.MAX_VALUE;
+
+    /**
+     * 当前最大的文章ID（只增不减），首次刷新前为 -1（不按上限拦截）
+     */
+    private final AtomicLong idLimit = new AtomicLong(-1);
+
+    private final AtomicLong insertions = new AtomicLong();
+
+    private volatile ConcurrentLinkedQueue<Long> pendingAdds;
+
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "article-bloom-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void init() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(ADD_CHANNEL));
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    /**
+     * 定期重建，补上 Pub/Sub 丢失的新增ID，同时清除已删除文章的ID
+     */
+    @Scheduled(initialDelayString = "${cache.article.bloom-rebuild-millis:600000}",
+            fixedDelayString = "${cache.article.bloom-rebuild-millis:600000}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * 定期从数据库刷新ID上限
+     */
+    @Scheduled(fixedDelayString = "${cache.article.bloom-id-limit-refresh-millis:5000}")
+    public void refreshIdLimit() {
+        try {
+            long maxId = articleRepository.selectMaxArticleId();
+            idLimit.accumulateAndGet(maxId, Math::max);
+        } catch (Exception e) {
+            log.debug("刷新文章ID上限失败，保留当前值: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    /**
+     * 从数据库重新构建布隆过滤器
+     */
+    public synchronized void rebuild() {
+        // 记录构建期间新增的ID，避免它们在切换到新过滤器后被误拦
+        ConcurrentLinkedQueue<Long> addedDuringRebuild = new ConcurrentLinkedQueue<>();
+        pendingAdds = addedDuringRebuild;
+        try {
+            List<Long> articleIds = articleRepository.selectPublishedArticleIds();
+            long newCapacity = Math.max(expectedInsertions, articleIds.size() * 2L);
+            BloomFilter newFilter = new BloomFilter(newCapacity, falsePositiveRate);
+            articleIds.forEach(newFilter::put);
+            long maxId = articleIds.stream().mapToLong(Long::longValue).max().orElse(0L);
+            idLimit.accumulateAndGet(maxId, Math::max);
+            refreshIdLimit();
+
+            filter = newFilter;
+            watermark = maxId;
+            capacity = newCapacity;
+            insertions.set(articleIds.size());
+            pendingAdds = null;
+            addedDuringRebuild.forEach(newFilter::put);
+            log.info("文章布隆过滤器构建完成，共{}篇文章，容量{}", articleIds.size(), newCapacity);
+        } catch (Exception e) {
+            pendingAdds = null;
+            log.error("文章布隆过滤器构建失败，暂不拦截请求", e);
+        }
+    }
+
+    /**
+     * 判断文章ID是否可能是已发布文章
+     * @param articleId 文章ID
+     * @return false 表示该文章一定不存在或未发布
+     */
+    public boolean mightContain(Long articleId) {
+        BloomFilter current = filter;
+        if (current == null || articleId == null) {
+            return true;
+        }
+        long limit = idLimit.get();
+        if (limit >= 0 && articleId > limit) {
+            return false;
+        }
+        return articleId > watermark || current.mightContain(articleId);
+    }
+
+    /**
+     * 文章发布后加入布隆过滤器，并通知其他节点
+     * @param articleId 文章ID
+     */
+    public void add(Long articleId) {
+        addLocal(articleId);
+        redisUtils.publish(ADD_CHANNEL, redisUtils.getNodeId() + ":" + articleId);
+    }
+
+    private void addLocal(Long articleId) {
+        idLimit.accumulateAndGet(articleId, Math::max);
+
+        ConcurrentLinkedQueue<Long> rebuilding = pendingAdds;
+        if (rebuilding != null) {
+            rebuilding.add(articleId);
+        }
+
+        BloomFilter current = filter;
+        if (current == null) {
+            return;
+        }
+        current.put(articleId);
+
+        // 超出容量后误判率上升，异步重建（排队中的重建只保留一个）
+        if (insertions.incrementAndGet() > capacity) {
+            insertions.set(0);
+            requestRebuild();
+        }
+    }
+
+    private void requestRebuild() {
+        if (!rebuildQueued.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            rebuildExecutor.execute(() -> {
+                rebuildQueued.set(false);
+                rebuild();
+            });
+        } catch (RejectedExecutionException e) {
+            // 应用关闭中
+            rebuildQueued.set(false);
+        }
+    }
+
+    /**
+     * 接收其他节点发布的新增ID（格式：节点ID:文章ID）
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Object body = redisUtils.deserializeMessage(message.getBody());
+        if (body == null) {
+            return;
+        }
+
+        String payload = body.toString();
+        int separator = payload.lastIndexOf(':');
+        if (separator < 0 || payload.substring(0, separator).equals(redisUtils.getNodeId())) {
+            return;
+        }
+
+        try {
+            addLocal(Long.valueOf(payload.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            log.warn("无法解析布隆过滤器消息: {}", payload);
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package com.my.blog.service.Impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.my.blog.entity.Article;
+import com.my.blog.event.ArticleChangedEvent;
+import com.my.blog.exception.CustomException;
+import com.my.blog.exception.ErrorCode;
+import com.my.blog.utils.CacheEntry;
+import com.my.blog.utils.CachePolicy;
+import com.my.blog.utils.CacheVersion;
+import com.my.blog.utils.RedisUtils;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 文章两级缓存
+ * L1：进程内 Caffeine 缓存（按估算字节数限制容量，带TTL与淘汰）
+ * L2：Redis 缓存，经 CachePolicy 写入（TTL抖动 + XFetch 提前刷新）
+ *
+ * Redis 条目使用版本化的key：article:{id}:v{version}，版本号保存在 article:ver:{id}
+ * 加载者在查询数据库之前读取版本号，并把结果写到该版本的key下；写操作提交后版本号加一
+ * 因此与写操作并发的慢加载即使写回了旧数据，也只会落在已废弃的版本上，不依赖过期时间保证正确性
+ * 文章写入时通过 Redis Pub/Sub 广播失效消息，各节点收到后清除自己的 L1
+ * 不存在/未发布的文章ID写入短TTL的负缓存（本地 + Redis article:null:{id}:v{version}），避免反复穿透到数据库
+ * 版本号与 article:modified:{id}（最近变更时间）一起作为文章详情的 HTTP 校验值，条件请求不必加载文章正文
+ */
+@Slf4j
+@Service
+public class ArticleCacheService implements MessageListener {
+
+    /**
+     * 文章缓存失效广播频道
+     */
+    public static final String INVALIDATION_CHANNEL = "cache:invalidate:article";
+
+    private static final String KEY_PREFIX = "article:";
+
+    private static final String VERSION_KEY_PREFIX = "article:ver:";
+
+    private static final String NULL_KEY_PREFIX = "article:null:";
+
+    private static final String MODIFIED_KEY_PREFIX = "article:modified:";
+
+    @Autowired
+    private RedisUtils redisUtils;
+
+    @Autowired
+    private CachePolicy cachePolicy;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${cache.article.ttl-hours:72}")
+    private long ttlHours;  // Redis 条目基础存活时间（小时），正确性由版本号保证
+
+    @Value("${cache.article.local-max-weight:67108864}")
+    private long localMaxWeight;  // L1 最大容量（估算字节数）
+
+    @Value("${cache.article.local-ttl-seconds:300}")
+    private long localTtlSeconds;  // L1 条目写入后的存活时间（秒）
+
+    @Value("${cache.article.negative-ttl-seconds:60}")
+    private long negativeTtlSeconds;  // 负缓存存活时间（秒）
+
+    private Cache<Long, Article> localCache;
+
+    private Cache<Long, Boolean> localNegativeCache;
+
+    @PostConstruct
+    public void init() {
+        // 过期时间只在写入时计算（带抖动）：浏览量回写等原地更新不会延长条目寿命
+        localCache = Caffeine.newBuilder()
+                .maximumWeight(localMaxWeight)
+                .weigher((Long id, Article article) -> estimateSize(article))
+                .expireAfter(new Expiry<Long, Article>() {
+                    @Override
+                    public long expireAfterCreate(Long id, Article article, long currentTime) {
+                        return cachePolicy.jitter(TimeUnit.SECONDS.toNanos(localTtlSeconds));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long id, Article article, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long id, Article article, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        localNegativeCache = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(negativeTtlSeconds, TimeUnit.SECONDS)
+                .build();
+
+        // 订阅失效频道
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    /**
+     * 读取文章当前的缓存版本号（从未变更过的文章为0）
+     * 加载者必须在查询数据库之前调用，并把版本号传给 put / markMissing
+     * @param articleId 文章ID
+     * @return 版本号
+     */
+    public long currentVersion(Long articleId) {
+        return toLong(redisUtils.get(VERSION_KEY_PREFIX + articleId));
+    }
+
+    /**
+     * 读取文章的校验版本（版本号 + 最近变更时间，一次往返）
+     * 变更时间在文章变更时写入，从数据库加载文章时按文章本身的修改时间补齐（见 initModified），
+     * Redis 数据丢失后版本号从0重新计数，变更时间随之重新取值，不会与丢失前的校验值相同
+     * @param articleId 文章ID
+     * @return 校验版本，变更时间尚未记录时返回 null
+     */
+    public CacheVersion validatorVersion(Long articleId) {
+        List<Object> values = redisUtils.multiGet(List.of(VERSION_KEY_PREFIX + articleId, MODIFIED_KEY_PREFIX + articleId));
+        if (values == null || values.get(1) == null) {
+            return null;
+        }
+        return new CacheVersion(toLong(values.get(0)), toLong(values.get(1)));
+    }
+
+    /**
+     * 变更时间尚未记录时写入（从数据库加载文章后调用）；已被变更写入的时间不会被覆盖
+     * @param articleId 文章ID
+     * @param modifiedMillis 文章的最近修改时间（毫秒时间戳）
+     */
+    public void initModified(Long articleId, long modifiedMillis) {
+        redisUtils.setIfAbsent(MODIFIED_KEY_PREFIX + articleId, modifiedMillis);
+    }
+
+    /**
+     * 读取文章缓存：先查 L1，未命中再查当前版本的 Redis 条目并回填 L1
+     * @param articleId 文章ID
+     * @param refresher Redis 条目临近过期时在后台执行的重新加载函数
+     * @return 缓存的文章，两级都未命中时返回 null
+     */
+    public Article get(Long articleId, Runnable refresher) {
+        Article article = localCache.getIfPresent(articleId);
+        if (article != null) {
+            return article;
+        }
+
+        long version = currentVersion(articleId);
+        article = cachePolicy.get(entryKey(articleId, version),
+                cached -> cached instanceof Article ? (Article) cached : convertToArticle(cached),
+                refresher);
+        if (article == null) {
+            return null;
+        }
+
+        putLocal(articleId, article, version);
+        return article;
+    }
+
+    /**
+     * 写入两级缓存
+     * @param article 文章
+     * @param version 查询数据库之前读取的版本号
+     * @param computeMillis 从数据库加载该文章的耗时（毫秒）
+     */
+    public void put(Article article, long version, long computeMillis) {
+        cachePolicy.set(entryKey(article.getArticleId(), version), article, ttlHours, TimeUnit.HOURS, computeMillis);
+        putLocal(article.getArticleId(), article, version);
+    }
+
+    /**
+     * 文章提交变更后调用：版本号加一使旧条目失效，清除本地 L1，并通知其他节点清除各自的 L1
+     * @param articleId 文章ID
+     * @return 新的版本号
+     */
+    public long invalidate(Long articleId) {
+        long version = redisUtils.increment(VERSION_KEY_PREFIX + articleId);
+        redisUtils.set(MODIFIED_KEY_PREFIX + articleId, System.currentTimeMillis());
+
+        // 旧版本的条目已不会再被读取，顺手删除以释放内存
+        redisUtils.delete(entryKey(articleId, version - 1));
+        redisUtils.delete(nullKey(articleId, version - 1));
+
+        evictLocal(articleId);
+        redisUtils.publish(INVALIDATION_CHANNEL, redisUtils.getNodeId() + ":" + articleId);
+        return version;
+    }
+
+    /**
+     * 记录文章不存在（或未发布），短时间内的重复请求直接返回不存在
+     * @param articleId 文章ID
+     * @param version 查询数据库之前读取的版本号
+     */
+    public void markMissing(Long articleId, long version) {
+        redisUtils.set(nullKey(articleId, version), 1, negativeTtlSeconds, TimeUnit.SECONDS);
+        localNegativeCache.put(articleId, Boolean.TRUE);
+        if (currentVersion(articleId) != version) {
+            localNegativeCache.invalidate(articleId);
+        }
+    }
+
+    /**
+     * 判断文章是否命中负缓存
+     * @param articleId 文章ID
+     * @return 是否已知不存在
+     */
+    public boolean isMarkedMissing(Long articleId) {
+        if (localNegativeCache.getIfPresent(articleId) != null) {
+            return true;
+        }
+        if (redisUtils.hasKey(nullKey(articleId, currentVersion(articleId)))) {
+            localNegativeCache.put(articleId, Boolean.TRUE);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 把已写入数据库的浏览量增量并入缓存中的文章基数，避免条目重新加载到 L1 后浏览量回退
+     * L1：替换为新副本（不修改共享对象）
+     * L2：乐观更新当前版本的 Redis 条目，保留其剩余TTL与重建耗时；多个节点同时写回时冲突重试
+     * 其他节点 L1 中的副本不更新，在 L1 TTL 到期后从 L2 取得最新基数
+     * @param articleId 文章ID
+     * @param delta 已落库的增量
+     */
+    public void addViewCount(Long articleId, long delta) {
+        localCache.asMap().computeIfPresent(articleId, (id, article) -> withViewDelta(article, delta));
+        try {
+            redisUtils.updateIfPresent(entryKey(articleId, currentVersion(articleId)), raw -> {
+                CacheEntry entry = CacheEntry.from(raw);
+                if (entry == null) {
+                    return null;
+                }
+                Article article = convertToArticle(entry.getValue());
+                return new CacheEntry(withViewDelta(article, delta), entry.getDelta(), entry.getExpiry());
+            }, 3);
+        } catch (Exception e) {
+            // 条目会在下次加载时从数据库取得正确的浏览量
+            log.debug("更新 Redis 中文章 {} 的浏览量失败: {}", articleId, e.getMessage());
+        }
+    }
+
+    private Article withViewDelta(Article article, long delta) {
+        return article.toBuilder()
+                .viewCount((int) Math.min(Integer.MAX_VALUE,
+                        (article.getViewCount() == null ? 0L : article.getViewCount()) + delta))
+                .build();
+    }
+
+    // 写入 L1 后再确认版本未变，避免与失效并发时把旧数据留在本地
+    private void putLocal(Long articleId, Article article, long version) {
+        localCache.put(articleId, article);
+        if (currentVersion(articleId) != version) {
+            localCache.invalidate(articleId);
+        }
+    }
+
+    private void evictLocal(Long articleId) {
+        localCache.invalidate(articleId);
+        localNegativeCache.invalidate(articleId);
+    }
+
+    private long toLong(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        return value instanceof Number ? ((Number) value).longValue() : Long.parseLong(value.toString());
+    }
+
+    private String entryKey(Long articleId, long version) {
+        return KEY_PREFIX + articleId + ":v" + version;
+    }
+
+    private String nullKey(Long articleId, long version) {
+        return NULL_KEY_PREFIX + articleId + ":v" + version;
+    }
+
+    /**
+     * 接收其他节点发布的失效消息（格式：节点ID:文章ID）
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Object body = redisUtils.deserializeMessage(message.getBody());
+        if (body == null) {
+            return;
+        }
+
+        String payload = body.toString();
+        int separator = payload.lastIndexOf(':');
+        if (separator < 0) {
+            return;
+        }
+
+        // 本节点发出的消息在 invalidate 时已经处理过
+        if (payload.substring(0, separator).equals(redisUtils.getNodeId())) {
+            return;
+        }
+
+        Long articleId;
+        try {
+            articleId = Long.valueOf(payload.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            log.warn("无法解析文章缓存失效消息: {}", payload);
+            return;
+        }
+
+        evictLocal(articleId);
+        eventPublisher.publishEvent(new ArticleChangedEvent(this, articleId, true));
+    }
+
+    /**
+     * 估算文章在堆中占用的字节数（字符按2字节计算，另加固定对象开销）
+     */
+    private int estimateSize(Article article) {
+        long size = 256;
+        size += 2L * length(article.getTitle());
+        size += 2L * length(article.getContent());
+        size += 2L * length(article.getSummary());
+        size += 2L * length(article.getCategory());
+        size += 2L * length(article.getRejectReason());
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    private int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    // 处理Redis中反序列化为Map等非Article类型的数据
+    private Article convertToArticle(Object obj) {
+        try {
+            if (obj instanceof String) {
+                return objectMapper.readValue((String) obj, Article.class);
+            } else if (obj instanceof Map) {
+                return objectMapper.convertValue(obj, Article.class);
+            } else {
+                String json = objectMapper.writeValueAsString(obj);
+                return objectMapper.readValue(json, Article.class);
+            }
+        } catch (Exception e) {
+            throw new CustomException(ErrorCode.CACHE_DATA_INVALID);
+        }
+    }
+}
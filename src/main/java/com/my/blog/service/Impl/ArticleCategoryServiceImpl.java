@@ -1,17 +1,22 @@
 package com.my.blog.service.Impl;
 
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.my.blog.dto.request.ArticleCategoryCreateDTO;
-import com.my.blog.entity.Article;
+import com.my.blog.dto.response.ArticleSummary;
+import com.my.blog.dto.response.CursorPage;
 import com.my.blog.entity.ArticleCategory;
 import com.my.blog.exception.CustomException;
 import com.my.blog.exception.ErrorCode;
 import com.my.blog.repository.ArticleCategoryRepository;
 import com.my.blog.service.ArticleCategoryService;
+import com.my.blog.service.ArticleTagRelationService;
+import com.my.blog.utils.PageCursor;
+import com.my.blog.utils.SingleFlight;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @RequiredArgsConstructor
 @Service
@@ -19,11 +24,21 @@ public class ArticleCategoryServiceImpl implements ArticleCategoryService {
 
     private final ArticleCategoryRepository articleCategoryRepository;
 
+    private final SingleFlight singleFlight; // 合并同一查询的并发请求
+
+    private final CacheInvalidationService cacheInvalidationService; // 统一失效缓存
+
+    private final TaxonomyDictionary taxonomyDictionary; // 进程内分类字典
+
+    private final ArticleTagRelationService articleTagRelationService; // 列表按页批量填充标签
+
+    private final ArticleCountService articleCountService; // 分类的已发布文章数
+
     @Override
     public ArticleCategory createCategory(ArticleCategoryCreateDTO articleCategoryCreateDTO) {
 
         //分类已存在
-        if (articleCategoryRepository.existsByName(articleCategoryCreateDTO.getCategoryName())){
+        if (taxonomyDictionary.findCategoryByName(articleCategoryCreateDTO.getCategoryName()) != null){
             throw new CustomException(ErrorCode.CATEGORY_ALREADY_EXISTS);
         }
 
@@ -35,14 +50,27 @@ public class ArticleCategoryServiceImpl implements ArticleCategoryService {
 
         //插入分类
         articleCategoryRepository.insert(articleCategory);
+        cacheInvalidationService.categoriesChanged();
 
         return articleCategory;
 
     }
 
+    // 附带已发布文章数，Redis 不可用时使用数据库中最近一次校正的值
     @Override
     public List<ArticleCategory> selectAll() {
-        return articleCategoryRepository.selectList(new QueryWrapper<>());
+        Map<String, Long> counts = articleCountService.categoryCounts();
+        // 字典中的实体是共享对象，复制后再填充文章数
+        return taxonomyDictionary.allCategories().stream()
+                .map(category -> ArticleCategory.builder()
+                        .categoryId(category.getCategoryId())
+                        .categoryName(category.getCategoryName())
+                        .description(category.getDescription())
+                        .parentCategoryIdValue(category.getParentCategoryIdValue())
+                        .children(new ArrayList<>())
+                        .articleCount(counts == null ? null : counts.getOrDefault(category.getCategoryName(), 0L))
+                        .build())
+                .toList();
 
     }
 
@@ -54,26 +82,45 @@ public class ArticleCategoryServiceImpl implements ArticleCategoryService {
         if (result == 0){
             throw new CustomException(ErrorCode.CATEGORY_NOT_FOUND);
         }
+        cacheInvalidationService.categoriesChanged();
 
         return result;
 
     }
 
     @Override
-    public List<Article> getArticlesByCategoryName(String categoryName) {
+    public CursorPage<ArticleSummary> getArticlesByCategoryName(String categoryName, String cursor, int size,
+                                                               boolean withTotal) {
         // 检查分类是否存在
         if (categoryName == null || categoryName.trim().isEmpty()) {
             throw new CustomException(ErrorCode.CATEGORY_NOT_FOUND);
         }
 
-        ArticleCategory category = articleCategoryRepository.findByName(categoryName);
+        ArticleCategory category = taxonomyDictionary.findCategoryByName(categoryName);
         if (category == null) {
             throw new CustomException(ErrorCode.CATEGORY_NOT_FOUND);
         }
 
-        // 调用Repository方法获取分类下的所有文章
-        List<Article> articles = articleCategoryRepository.findArticlesByCategoryName(category.getCategoryName());
-
-        return articles;
+        PageCursor position = PageCursor.decode(cursor);
+        int pageSize = CursorPage.normalizeSize(size);
+
+        // 多取一条用于判断是否还有下一页
+        List<ArticleSummary> rows = singleFlight.execute(
+                "category:articles:" + categoryName + ":" + cursor + ":" + pageSize,
+                () -> articleCategoryRepository.findArticlesByCategoryName(category.getCategoryName(),
+                        position == null ? null : position.getTime(),
+                        position == null ? null : position.getId(),
+                        pageSize + 1));
+
+        // 总数直接取维护好的已发布文章数，不执行 COUNT
+        Long total = null;
+        if (withTotal) {
+            Map<String, Long> counts = articleCountService.categoryCounts();
+            total = counts == null ? null : counts.getOrDefault(category.getCategoryName(), 0L);
+        }
+        CursorPage<ArticleSummary> result = CursorPage.of(rows, pageSize,
+                last -> PageCursor.encode(last.getPublishTime(), last.getArticleId()), total);
+        articleTagRelationService.attachTags(result.getRecords());
+        return result;
     }
 }
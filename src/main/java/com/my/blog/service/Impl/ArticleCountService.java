@@ -0,0 +1,331 @@
+package com.my.blog.service.Impl;
+
+import com.my.blog.dto.response.ArticleSummary;
+import com.my.blog.entity.ArticleCategory;
+import com.my.blog.entity.ArticleTag;
+import com.my.blog.entity.ArticleTagRelation;
+import com.my.blog.repository.ArticleCategoryRepository;
+import com.my.blog.repository.ArticleRepository;
+import com.my.blog.repository.ArticleTagRelationRepository;
+import com.my.blog.repository.ArticleTagRepository;
+import com.my.blog.utils.RedisUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 每个标签、每个分类的已发布文章数（标签云、分类侧栏使用）
+ * 实时值保存在 Redis 哈希中（字段为标签ID / 分类名），写操作提交后按增量 HINCRBY，列表接口直接读取，不做聚合查询
+ * 增量的计算方式：写操作前后各取一次文章的"贡献"（是否已发布、所属分类、关联标签），两者之差即为各计数的变化
+ * 定时任务用 GROUP BY 重新统计，校正 Redis 中的偏差（如提交后 Redis 写入失败）并写回 MySQL 的 article_count 列
+ * Redis 不可用时列表接口使用 MySQL 中最近一次校正的值
+ * article_count 列由 sql/article_count.sql 添加；未执行迁移时跳过写回与数据库回退，Redis 计数照常工作
+ */
+@Slf4j
+@Service
+public class ArticleCountService {
+
+    /**
+     * 标签ID -> 已发布文章数
+     */
+    public static final String TAG_COUNT_KEY = "count:tag";
+
+    /**
+     * 分类名 -> 已发布文章数
+     */
+    public static final String CATEGORY_COUNT_KEY = "count:category";
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private ArticleTagRelationRepository articleTagRelationRepository;
+
+    @Autowired
+    private ArticleTagRepository articleTagRepository;
+
+    @Autowired
+    private ArticleCategoryRepository articleCategoryRepository;
+
+    @Autowired
+    private RedisUtils redisUtils;
+
+    /**
+     * 已记录过 article_count 列不可用的警告，避免每次校正都输出
+     */
+    private volatile boolean storedCountsUnavailableLogged;
+
+    /**
+     * 一篇文章对计数的贡献：未发布（草稿或不存在）的文章不计入任何计数
+     */
+    public static final class Contribution {
+
+        public static final Contribution NONE = new Contribution(null, Set.of());
+
+        private final String category;
+
+        private final Set<Long> tagIds;
+
+        private Contribution(String category, Set<Long> tagIds) {
+            this.category = category;
+            this.tagIds = tagIds;
+        }
+    }
+
+    /**
+     * 读取文章当前的贡献（在写操作之前和之后各调用一次）
+     * @param articleId 文章ID
+     * @return 文章的贡献
+     */
+    public Contribution snapshot(Long articleId) {
+        ArticleSummary summary = articleRepository.selectSummaryById(articleId);
+        if (summary == null || "draft".equals(summary.getStatus())) {
+            return Contribution.NONE;
+        }
+        return new Contribution(summary.getCategory(),
+                Set.copyOf(articleTagRelationRepository.selectTagIdsByArticleId(articleId)));
+    }
+
+    /**
+     * 批量读取文章当前的贡献（两次 IN 查询）
+     * @param articleIds 文章ID列表
+     * @return 文章ID -> 贡献，未发布的文章不在结果中
+     */
+    public Map<Long, Contribution> snapshot(Collection<Long> articleIds) {
+        Map<Long, Contribution> contributions = new HashMap<>();
+        if (articleIds.isEmpty()) {
+            return contributions;
+        }
+        List<ArticleSummary> published = articleRepository.selectSummariesByIds(articleIds);
+        if (published.isEmpty()) {
+            return contributions;
+        }
+        Map<Long, Set<Long>> tagIds = new HashMap<>();
+        for (ArticleTagRelation relation : articleTagRelationRepository.selectByArticleIds(
+                published.stream().map(ArticleSummary::getArticleId).toList())) {
+            tagIds.computeIfAbsent(relation.getArticleId(), key -> new HashSet<>()).add(relation.getTagId());
+        }
+        for (ArticleSummary summary : published) {
+            contributions.put(summary.getArticleId(), new Contribution(summary.getCategory(),
+                    Set.copyOf(tagIds.getOrDefault(summary.getArticleId(), Set.of()))));
+        }
+        return contributions;
+    }
+
+    /**
+     * 登记一篇文章的贡献变化，事务提交后写入 Redis
+     * @param before 写操作之前的贡献
+     * @param after 写操作之后的贡献
+     */
+    public void changed(Contribution before, Contribution after) {
+        Map<String, Long> tagDeltas = new HashMap<>();
+        Map<String, Long> categoryDeltas = new HashMap<>();
+        collect(before, after, tagDeltas, categoryDeltas);
+        apply(tagDeltas, categoryDeltas);
+    }
+
+    /**
+     * 登记一批文章被删除，事务提交后写入 Redis
+     * @param before 删除之前的贡献（见 snapshot(Collection)）
+     */
+    public void deleted(Map<Long, Contribution> before) {
+        Map<String, Long> tagDeltas = new HashMap<>();
+        Map<String, Long> categoryDeltas = new HashMap<>();
+        before.values().forEach(contribution -> collect(contribution, Contribution.NONE, tagDeltas, categoryDeltas));
+        apply(tagDeltas, categoryDeltas);
+    }
+
+    /**
+     * 读取全部标签的已发布文章数，Redis 不可用或尚未校正时使用数据库中最近一次校正的值
+     * @return 标签ID -> 文章数，两者都不可用时返回 null
+     */
+    public Map<Long, Long> tagCounts() {
+        Map<Long, Long> counts = new HashMap<>();
+        Map<Object, Object> fields = readHash(TAG_COUNT_KEY);
+        if (fields != null) {
+            fields.forEach((field, value) -> counts.put(Long.valueOf(field.toString()), toLong(value)));
+            return counts;
+        }
+        try {
+            articleTagRepository.selectStoredArticleCounts().forEach(tag ->
+                    counts.put(tag.getTagId(), tag.getArticleCount() == null ? 0L : tag.getArticleCount()));
+            return counts;
+        } catch (Exception e) {
+            log.debug("读取数据库中的标签文章数失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 读取全部分类的已发布文章数，Redis 不可用或尚未校正时使用数据库中最近一次校正的值
+     * @return 分类名 -> 文章数，两者都不可用时返回 null
+     */
+    public Map<String, Long> categoryCounts() {
+        Map<String, Long> counts = new HashMap<>();
+        Map<Object, Object> fields = readHash(CATEGORY_COUNT_KEY);
+        if (fields != null) {
+            fields.forEach((field, value) -> counts.put(field.toString(), toLong(value)));
+            return counts;
+        }
+        try {
+            articleCategoryRepository.selectStoredArticleCounts().forEach(category -> counts.put(
+                    category.getCategoryName(), category.getArticleCount() == null ? 0L : category.getArticleCount()));
+            return counts;
+        } catch (Exception e) {
+            log.debug("读取数据库中的分类文章数失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 重新统计全部计数：写回 MySQL（只更新有变化的行）并覆盖 Redis 中的值
+     * 统计与覆盖之间提交的增量会被覆盖掉，由下一次校正修正
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${count.reconcile-interval-millis:300000}")
+    public void reconcile() {
+        try {
+            Map<String, Long> tagCounts = reconcileTags();
+            Map<String, Long> categoryCounts = reconcileCategories();
+            overwrite(TAG_COUNT_KEY, tagCounts);
+            overwrite(CATEGORY_COUNT_KEY, categoryCounts);
+        } catch (Exception e) {
+            log.warn("校正标签/分类文章数失败，将在下次定时任务时重试: {}", e.getMessage());
+        }
+    }
+
+    private Map<String, Long> reconcileTags() {
+        Map<Long, Long> actual = new HashMap<>();
+        articleTagRepository.selectPublishedArticleCounts()
+                .forEach(tag -> actual.put(tag.getTagId(), tag.getArticleCount()));
+        Map<String, Long> counts = new HashMap<>();
+        for (ArticleTag tag : articleTagRepository.selectList(null)) {
+            counts.put(tag.getTagId().toString(), actual.getOrDefault(tag.getTagId(), 0L));
+        }
+        writeBack(() -> {
+            for (ArticleTag stored : articleTagRepository.selectStoredArticleCounts()) {
+                long count = actual.getOrDefault(stored.getTagId(), 0L);
+                if (!Objects.equals(stored.getArticleCount(), count)) {
+                    articleTagRepository.updateArticleCount(stored.getTagId(), count);
+                }
+            }
+        });
+        return counts;
+    }
+
+    private Map<String, Long> reconcileCategories() {
+        Map<String, Long> actual = new HashMap<>();
+        articleCategoryRepository.selectPublishedArticleCounts()
+                .forEach(category -> actual.put(category.getCategoryName(), category.getArticleCount()));
+        Map<String, Long> counts = new HashMap<>();
+        for (ArticleCategory category : articleCategoryRepository.selectList(null)) {
+            counts.put(category.getCategoryName(), actual.getOrDefault(category.getCategoryName(), 0L));
+        }
+        writeBack(() -> {
+            for (ArticleCategory stored : articleCategoryRepository.selectStoredArticleCounts()) {
+                long count = actual.getOrDefault(stored.getCategoryName(), 0L);
+                if (!Objects.equals(stored.getArticleCount(), count)) {
+                    articleCategoryRepository.updateArticleCount(stored.getCategoryId(), count);
+                }
+            }
+        });
+        return counts;
+    }
+
+    // 写回 MySQL（只更新有变化的行）；article_count 列不存在时只警告一次，不影响 Redis 计数
+    private void writeBack(Runnable action) {
+        try {
+            action.run();
+        } catch (Exception e) {
+            if (!storedCountsUnavailableLogged) {
+                storedCountsUnavailableLogged = true;
+                log.warn("写回文章数失败（是否已执行 sql/article_count.sql？），仅维护 Redis 中的计数: {}", e.getMessage());
+            }
+        }
+    }
+
+    // 覆盖全部字段并删除已不存在的标签/分类对应的字段
+    private void overwrite(String key, Map<String, Long> counts) {
+        Set<Object> stale = new HashSet<>(redisUtils.hashGetAll(key).keySet());
+        stale.removeAll(counts.keySet());
+        if (!counts.isEmpty()) {
+            redisUtils.hashPutAll(key, counts);
+        }
+        if (!stale.isEmpty()) {
+            redisUtils.hashDelete(key, stale.toArray());
+        }
+    }
+
+    private void collect(Contribution before, Contribution after,
+                         Map<String, Long> tagDeltas, Map<String, Long> categoryDeltas) {
+        for (Long tagId : before.tagIds) {
+            if (!after.tagIds.contains(tagId)) {
+                tagDeltas.merge(tagId.toString(), -1L, Long::sum);
+            }
+        }
+        for (Long tagId : after.tagIds) {
+            if (!before.tagIds.contains(tagId)) {
+                tagDeltas.merge(tagId.toString(), 1L, Long::sum);
+            }
+        }
+        if (!Objects.equals(before.category, after.category)) {
+            if (before.category != null) {
+                categoryDeltas.merge(before.category, -1L, Long::sum);
+            }
+            if (after.category != null) {
+                categoryDeltas.merge(after.category, 1L, Long::sum);
+            }
+        }
+    }
+
+    // 有活动事务时登记到提交之后执行，否则立即执行；失败只记录日志，由定时校正修正
+    private void apply(Map<String, Long> tagDeltas, Map<String, Long> categoryDeltas) {
+        tagDeltas.values().removeIf(delta -> delta == 0);
+        categoryDeltas.values().removeIf(delta -> delta == 0);
+        if (tagDeltas.isEmpty() && categoryDeltas.isEmpty()) {
+            return;
+        }
+        Runnable action = () -> {
+            try {
+                tagDeltas.forEach((field, delta) -> redisUtils.hashIncrement(TAG_COUNT_KEY, field, delta));
+                categoryDeltas.forEach((field, delta) -> redisUtils.hashIncrement(CATEGORY_COUNT_KEY, field, delta));
+            } catch (Exception e) {
+                log.warn("更新标签/分类文章数失败，等待定时校正: {}", e.getMessage());
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private Map<Object, Object> readHash(String key) {
+        try {
+            Map<Object, Object> fields = redisUtils.hashGetAll(key);
+            return fields.isEmpty() ? null : fields;
+        } catch (Exception e) {
+            log.debug("读取文章数失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+}
@@ -0,0 +1,294 @@
+package com.my.blog.service.Impl;
+
+import com.my.blog.dto.response.ArticleSummary;
+import com.my.blog.entity.Article;
+import com.my.blog.entity.ArticleTagRelation;
+import com.my.blog.event.ArticleChangedEvent;
+import com.my.blog.repository.ArticleRepository;
+import com.my.blog.repository.ArticleTagRelationRepository;
+import com.my.blog.search.CompressedBitmap;
+import com.my.blog.search.SearchHits;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 标签/分类过滤索引（进程内压缩位图）
+ * 每个标签、每个分类各保存一个已发布文章ID的压缩位图（见 CompressedBitmap），
+ * "同时带有标签A和B、不带标签C、属于分类D"之类的组合条件直接用位图的交集/并集/差集计算，不需要 JOIN 关联表
+ * 命中结果按发布时间倒序分页：只用大小为 offset+size 的堆选出当前页，不对全部结果排序
+ *
+ * 启动时全量构建，之后通过 ArticleChangedEvent 逐篇更新（本节点与其他节点的写操作都会触发），
+ * 并定期全量重建，校正遗漏的变更（如其他节点删除标签）
+ * 索引未就绪（首次构建中或数据库不可用）时 filter 返回 null，由调用方回退到数据库查询
+ */
+@Slf4j
+@Service
+public class ArticleFilterIndex implements ApplicationRunner {
+
+    private static final CompressedBitmap EMPTY = new CompressedBitmap();  // 只读，不会被修改
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private ArticleTagRelationRepository articleTagRelationRepository;
+
+    @Value("${search.filter.build-batch-size:1000}")
+    private int batchSize;  // 全量构建时每批读取的文章数
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private State state = new State();  // 读写都在锁内
+
+    private volatile boolean ready;
+
+    private volatile boolean rebuilding;
+
+    /**
+     * 全量重建期间发生变更的文章，新索引替换后重新加载（重建读到的可能是旧数据）
+     */
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    /**
+     * 全量重建：在锁外构建新索引，完成后整体替换
+     */
+    @Scheduled(fixedDelayString = "${search.filter.rebuild-interval-millis:600000}",
+            initialDelayString = "${search.filter.rebuild-interval-millis:600000}")
+    public synchronized void rebuild() {
+        rebuilding = true;
+        try {
+            long start = System.currentTimeMillis();
+            State built = new State();
+            long afterId = 0;
+            while (true) {
+                List<Article> batch = articleRepository.selectFilterableAfter(afterId, batchSize);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                Map<Long, List<Long>> tagIds = new HashMap<>();
+                List<Long> articleIds = batch.stream().map(Article::getArticleId).toList();
+                for (ArticleTagRelation relation : articleTagRelationRepository.selectByArticleIds(articleIds)) {
+                    tagIds.computeIfAbsent(relation.getArticleId(), key -> new ArrayList<>()).add(relation.getTagId());
+                }
+                for (Article article : batch) {
+                    built.put(article.getArticleId(), article.getPublishTime(), article.getCategory(),
+                            tagIds.getOrDefault(article.getArticleId(), List.of()));
+                }
+                afterId = batch.get(batch.size() - 1).getArticleId();
+            }
+
+            lock.writeLock().lock();
+            try {
+                state = built;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            ready = true;
+            log.info("标签/分类过滤索引构建完成，共{}篇文章，耗时{}ms", built.entries.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("标签/分类过滤索引构建失败，将在下次定时任务时重试", e);
+        } finally {
+            rebuilding = false;
+        }
+        List<Long> changed = new ArrayList<>(changedDuringRebuild);
+        changedDuringRebuild.removeAll(changed);
+        changed.forEach(this::reload);
+    }
+
+    /**
+     * 文章变更后重新加载该文章的发布状态、分类与标签
+     */
+    @EventListener
+    public void onArticleChanged(ArticleChangedEvent event) {
+        if (rebuilding) {
+            changedDuringRebuild.add(event.getArticleId());
+        }
+        reload(event.getArticleId());
+    }
+
+    /**
+     * 按标签/分类组合条件过滤已发布文章，按发布时间倒序分页
+     * @param allTagIds 必须全部带有的标签（AND），可为空
+     * @param anyTagIds 至少带有其中一个的标签（OR），可为空
+     * @param excludedTagIds 不能带有的标签（NOT），可为空
+     * @param categories 所属分类名（命中其中任意一个即可），为空时不限分类
+     * @param page 页码，从1开始
+     * @param size 每页条数
+     * @return 当前页的文章ID与命中总数，索引未就绪时返回 null
+     */
+    public SearchHits filter(Collection<Long> allTagIds, Collection<Long> anyTagIds, Collection<Long> excludedTagIds,
+                             Collection<String> categories, int page, int size) {
+        if (!ready) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            CompressedBitmap result = state.published;
+            if (!categories.isEmpty()) {
+                CompressedBitmap union = new CompressedBitmap();
+                for (String category : categories) {
+                    union = union.or(state.byCategory.getOrDefault(category, EMPTY));
+                }
+                result = result.and(union);
+            }
+            for (Long tagId : allTagIds) {
+                result = result.and(state.byTag.getOrDefault(tagId, EMPTY));
+            }
+            if (!anyTagIds.isEmpty()) {
+                CompressedBitmap union = new CompressedBitmap();
+                for (Long tagId : anyTagIds) {
+                    union = union.or(state.byTag.getOrDefault(tagId, EMPTY));
+                }
+                result = result.and(union);
+            }
+            for (Long tagId : excludedTagIds) {
+                result = result.andNot(state.byTag.getOrDefault(tagId, EMPTY));
+            }
+            return new SearchHits(result.cardinality(), topByPublishTime(result, (long) (page - 1) * size, size));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 小顶堆保留最新的 offset+size 篇，堆顶是其中最旧的一篇
+    private List<Long> topByPublishTime(CompressedBitmap result, long offset, int size) {
+        long total = result.cardinality();
+        if (offset >= total) {
+            return List.of();
+        }
+        int keep = (int) Math.min(total, offset + size);
+        Comparator<Long> oldestFirst = Comparator.<Long>comparingLong(id -> state.entries.get(id).publishMillis)
+                .thenComparingLong(id -> id);
+        PriorityQueue<Long> heap = new PriorityQueue<>(keep, oldestFirst);
+        result.forEach(articleId -> {
+            if (heap.size() < keep) {
+                heap.add(articleId);
+            } else if (oldestFirst.compare(articleId, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(articleId);
+            }
+        });
+        List<Long> newestFirst = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            newestFirst.add(heap.poll());
+        }
+        Collections.reverse(newestFirst);
+        return newestFirst.subList((int) offset, newestFirst.size());
+    }
+
+    // 读库在锁外完成，只有替换条目时持有写锁
+    private void reload(Long articleId) {
+        if (!ready) {
+            return;  // 首次构建完成前的变更由构建本身覆盖
+        }
+        try {
+            ArticleSummary summary = articleRepository.selectSummaryById(articleId);
+            boolean published = summary != null && !"draft".equals(summary.getStatus());
+            List<Long> tagIds = published ? articleTagRelationRepository.selectTagIdsByArticleId(articleId) : List.of();
+            lock.writeLock().lock();
+            try {
+                state.remove(articleId);
+                if (published) {
+                    state.put(articleId, summary.getPublishTime(), summary.getCategory(), tagIds);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (Exception e) {
+            log.warn("更新过滤索引失败 articleId={}，等待下次全量重建: {}", articleId, e.getMessage());
+        }
+    }
+
+    /**
+     * 索引数据：位图 + 每篇文章的条目（更新时据此从旧位图中移除）
+     */
+    private static final class State {
+
+        private final CompressedBitmap published = new CompressedBitmap();
+
+        private final Map<Long, CompressedBitmap> byTag = new HashMap<>();
+
+        private final Map<String, CompressedBitmap> byCategory = new HashMap<>();
+
+        private final Map<Long, Entry> entries = new HashMap<>();
+
+        private void put(Long articleId, LocalDateTime publishTime, String category, Collection<Long> tagIds) {
+            long publishMillis = publishTime == null ? Long.MIN_VALUE
+                    : publishTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            long[] tags = tagIds.stream().mapToLong(Long::longValue).distinct().toArray();
+            entries.put(articleId, new Entry(publishMillis, category, tags));
+            published.add(articleId);
+            if (category != null) {
+                byCategory.computeIfAbsent(category, key -> new CompressedBitmap()).add(articleId);
+            }
+            for (long tagId : tags) {
+                byTag.computeIfAbsent(tagId, key -> new CompressedBitmap()).add(articleId);
+            }
+        }
+
+        private void remove(Long articleId) {
+            Entry entry = entries.remove(articleId);
+            if (entry == null) {
+                return;
+            }
+            published.remove(articleId);
+            if (entry.category != null) {
+                removeFrom(byCategory, entry.category, articleId);
+            }
+            for (long tagId : entry.tagIds) {
+                removeFrom(byTag, tagId, articleId);
+            }
+        }
+
+        private static <K> void removeFrom(Map<K, CompressedBitmap> bitmaps, K key, long articleId) {
+            CompressedBitmap bitmap = bitmaps.get(key);
+            if (bitmap != null) {
+                bitmap.remove(articleId);
+                if (bitmap.isEmpty()) {
+                    bitmaps.remove(key);
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        private final long publishMillis;
+
+        private final String category;
+
+        private final long[] tagIds;
+
+        private Entry(long publishMillis, String category, long[] tagIds) {
+            this.publishMillis = publishMillis;
+            this.category = category;
+            this.tagIds = tagIds;
+        }
+    }
+}
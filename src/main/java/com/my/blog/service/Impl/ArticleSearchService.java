@@ -0,0 +1,481 @@
+package com.my.blog.service.Impl;
+
+import com.my.blog.entity.Article;
+import com.my.blog.event.ArticleChangedEvent;
+import com.my.blog.repository.ArticleRepository;
+import com.my.blog.search.IndexSegment;
+import com.my.blog.search.IndexedDocument;
+import com.my.blog.search.SearchHits;
+import com.my.blog.search.TextTokenizer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * 文章全文检索（进程内倒排索引，检索标题、摘要、正文，BM25 排序）
+ *
+ * 索引由两部分组成：
+ * 1. 磁盘段：不可变的索引段文件，启动时内存映射（见 IndexSegment）
+ * 2. 内存增量：段生成之后新增/修改的文章；被修改或删除的文章在磁盘段中的旧数据记入 superseded，查询时跳过
+ * 增量累计到一定数量或定时任务触发时，把磁盘段与内存增量合并写成新段并替换（合并期间查询不受影响）
+ *
+ * 所有修改（启动加载、增量更新、合并）都在单个写线程上串行执行；文章变更通过 ArticleChangedEvent 驱动，
+ * 本节点与其他节点的写操作都会触发，因此每个节点各自维护一份完整索引
+ * 启动时打开最新的段，再按段的构建水位从数据库补齐期间发生的变更；没有段时全量构建
+ * 索引未就绪（首次构建中或数据库不可用）时 search 返回 null，由调用方回退到数据库模糊查询
+ */
+@Slf4j
+@Service
+public class ArticleSearchService implements ApplicationRunner {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    // BM25 参数
+    private static final double K1 = 1.2;
+
+    private static final double B = 0.75;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Value("${search.backend:index}")
+    private String backend;  // 检索后端，不是 index 时不加载索引也不跟踪变更
+
+    @Value("${search.index.dir:data/search-index}")
+    private String indexDir;  // 索引段文件目录
+
+    @Value("${search.index.merge-threshold:1000}")
+    private int mergeThreshold;  // 内存增量达到多少篇文章时立即合并
+
+    @Value("${search.index.build-batch-size:500}")
+    private int buildBatchSize;  // 全量构建时每批读取的文章数
+
+    @Value("${search.index.catch-up-margin-minutes:10}")
+    private long catchUpMarginMinutes;  // 启动补齐时在水位基础上额外回溯的时间（分钟），覆盖合并时尚未处理完的变更
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search-index-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // 以下状态只在写线程中修改，修改时持有写锁；查询持有读锁
+    private IndexSegment segment = IndexSegment.empty();
+
+    private final Map<Long, IndexedDocument> memoryDocs = new HashMap<>();
+
+    private final Map<String, Set<Long>> memoryPostings = new HashMap<>();
+
+    private long memoryLength;
+
+    private final Set<Long> superseded = new HashSet<>();
+
+    private long supersededLength;
+
+    private volatile boolean ready;
+
+    private int pendingChanges;  // 上次合并之后的变更数，只在写线程中访问
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!isEnabled()) {
+            log.info("文章检索后端为 {}，不加载进程内全文索引", backend);
+            return;
+        }
+        writer.execute(this::load);
+    }
+
+    /**
+     * 检索已发布文章
+     * @param keyword 关键字（多个词之间为“且”关系）
+     * @param page 页码（从1开始）
+     * @param size 每页大小
+     * @return 当前页的文章ID与命中总数；索引未就绪或关键字只有单个汉字时返回 null，由调用方回退到数据库查询
+     */
+    public SearchHits search(String keyword, int page, int size) {
+        Set<String> terms = new LinkedHashSet<>(TextTokenizer.tokenize(keyword));
+        if (!ready || terms.isEmpty() || terms.stream().anyMatch(TextTokenizer::isSingleCjk)) {
+            // 正文中的汉字按二元词收录，单字查询无法命中索引
+            return null;
+        }
+
+        Map<Long, Double> scores;
+        lock.readLock().lock();
+        try {
+            scores = score(terms);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Long, Double>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())));
+
+        int from = (int) Math.min((long) (page - 1) * size, ranked.size());
+        int to = Math.min(from + size, ranked.size());
+        List<Long> articleIds = new ArrayList<>(to - from);
+        for (Map.Entry<Long, Double> entry : ranked.subList(from, to)) {
+            articleIds.add(entry.getKey());
+        }
+        return new SearchHits(ranked.size(), articleIds);
+    }
+
+    /**
+     * 文章变更（本节点提交后或收到其他节点的失效广播）后重新索引该文章
+     */
+    @EventListener
+    public void onArticleChanged(ArticleChangedEvent event) {
+        if (!isEnabled()) {
+            return;
+        }
+        Long articleId = event.getArticleId();
+        writer.execute(() -> {
+            try {
+                reindex(articleId);
+                if (++pendingChanges >= mergeThreshold) {
+                    merge();
+                }
+            } catch (Exception e) {
+                log.error("更新全文索引失败 articleId={}", articleId, e);
+            }
+        });
+    }
+
+    /**
+     * 定时把内存增量合并进磁盘段
+     */
+    @Scheduled(fixedDelayString = "${search.index.merge-interval-millis:300000}")
+    public void scheduleMerge() {
+        writer.execute(() -> {
+            if (ready && pendingChanges > 0) {
+                try {
+                    merge();
+                } catch (Exception e) {
+                    log.error("合并全文索引段失败，内存增量将在下次合并时重试", e);
+                }
+            }
+        });
+    }
+
+    private boolean isEnabled() {
+        return "index".equals(backend);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdownNow();
+    }
+
+    // 只统计包含全部查询词的文章
+    private Map<Long, Double> score(Set<String> terms) {
+        long docCount = segment.getDocCount() - superseded.size() + memoryDocs.size();
+        if (docCount <= 0) {
+            return Map.of();
+        }
+        double averageLength = Math.max(1.0,
+                (double) (segment.getTotalLength() - supersededLength + memoryLength) / docCount);
+
+        Map<Long, Double> scores = null;
+        for (String term : terms) {
+            Map<Long, int[]> postings = postings(term);
+            if (postings.isEmpty()) {
+                return Map.of();
+            }
+
+            double idf = Math.log(1 + (docCount - postings.size() + 0.5) / (postings.size() + 0.5));
+            Map<Long, Double> next = new HashMap<>();
+            for (Map.Entry<Long, int[]> posting : postings.entrySet()) {
+                Double previous = scores == null ? Double.valueOf(0) : scores.get(posting.getKey());
+                if (previous == null) {
+                    continue;
+                }
+                int frequency = posting.getValue()[0];
+                int length = posting.getValue()[1];
+                double termScore = idf * frequency * (K1 + 1)
+                        / (frequency + K1 * (1 - B + B * length / averageLength));
+                next.put(posting.getKey(), previous + termScore);
+            }
+            if (next.isEmpty()) {
+                return Map.of();
+            }
+            scores = next;
+        }
+        return scores;
+    }
+
+    // 词项的有效倒排表：文章ID -> (词频, 文档长度)
+    private Map<Long, int[]> postings(String term) {
+        Map<Long, int[]> postings = new HashMap<>();
+        segment.forEachPosting(term, (ordinal, frequency) -> {
+            long articleId = segment.articleIdAt(ordinal);
+            if (!superseded.contains(articleId)) {
+                postings.put(articleId, new int[]{frequency, segment.lengthAt(ordinal)});
+            }
+        });
+        for (Long articleId : memoryPostings.getOrDefault(term, Set.of())) {
+            IndexedDocument doc = memoryDocs.get(articleId);
+            postings.put(articleId, new int[]{doc.getTermFrequencies().get(term), doc.getLength()});
+        }
+        return postings;
+    }
+
+    private void load() {
+        try {
+            Path dir = Paths.get(indexDir);
+            Files.createDirectories(dir);
+            IndexSegment opened = openLatestSegment(dir);
+            if (opened == null) {
+                buildAll();
+            } else {
+                swapSegment(opened);
+                catchUp(opened.getWatermark());
+            }
+            ready = true;
+            log.info("全文索引已就绪，磁盘段{}篇，内存增量{}篇", segment.getDocCount(), memoryDocs.size());
+        } catch (Exception e) {
+            log.error("全文索引加载失败，检索将回退到数据库模糊查询", e);
+        }
+    }
+
+    private void buildAll() throws IOException {
+        long watermark = System.currentTimeMillis();
+        long afterId = 0;
+        while (true) {
+            List<Article> batch = articleRepository.selectSearchableAfter(afterId, buildBatchSize);
+            for (Article article : batch) {
+                index(article);
+            }
+            if (batch.size() < buildBatchSize) {
+                break;
+            }
+            afterId = batch.get(batch.size() - 1).getArticleId();
+        }
+        writeSegment(watermark);
+    }
+
+    // 补齐段生成之后的变更：删除的文章按ID集合比对，新增与修改的文章按时间查询
+    private void catchUp(long watermark) throws IOException {
+        long newWatermark = System.currentTimeMillis();
+        Set<Long> published = new HashSet<>(articleRepository.selectPublishedArticleIds());
+
+        Set<Long> changed = new HashSet<>();
+        for (int ordinal = 0; ordinal < segment.getDocCount(); ordinal++) {
+            long articleId = segment.articleIdAt(ordinal);
+            if (!published.contains(articleId)) {
+                changed.add(articleId);
+            }
+        }
+        for (Long articleId : published) {
+            if (segment.ordinalOf(articleId) == null) {
+                changed.add(articleId);
+            }
+        }
+        LocalDateTime since = LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(watermark - TimeUnit.MINUTES.toMillis(catchUpMarginMinutes)), ZoneId.systemDefault());
+        changed.addAll(articleRepository.selectArticleIdsModifiedSince(since));
+
+        for (Long articleId : changed) {
+            reindex(articleId);
+        }
+        if (!changed.isEmpty()) {
+            writeSegment(newWatermark);
+        }
+    }
+
+    private void reindex(Long articleId) {
+        Article article = articleRepository.selectById(articleId);
+        if (article == null || "draft".equals(article.getStatus())) {
+            lock.writeLock().lock();
+            try {
+                remove(articleId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } else {
+            index(article);
+        }
+    }
+
+    private void index(Article article) {
+        IndexedDocument doc = IndexedDocument.of(article.getArticleId(),
+                article.getTitle(), article.getSummary(), article.getContent());
+
+        lock.writeLock().lock();
+        try {
+            remove(article.getArticleId());
+            memoryDocs.put(doc.getArticleId(), doc);
+            memoryLength += doc.getLength();
+            for (String term : doc.getTermFrequencies().keySet()) {
+                memoryPostings.computeIfAbsent(term, key -> new HashSet<>()).add(doc.getArticleId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 调用方持有写锁
+    private void remove(Long articleId) {
+        IndexedDocument old = memoryDocs.remove(articleId);
+        if (old != null) {
+            memoryLength -= old.getLength();
+            for (String term : old.getTermFrequencies().keySet()) {
+                Set<Long> ids = memoryPostings.get(term);
+                if (ids != null && ids.remove(articleId) && ids.isEmpty()) {
+                    memoryPostings.remove(term);
+                }
+            }
+        }
+        Integer ordinal = segment.ordinalOf(articleId);
+        if (ordinal != null && superseded.add(articleId)) {
+            supersededLength += segment.lengthAt(ordinal);
+        }
+    }
+
+    private void merge() throws IOException {
+        writeSegment(System.currentTimeMillis());
+    }
+
+    /**
+     * 把磁盘段的有效部分与内存增量合并写成新段，再原子替换
+     * 写线程是唯一的修改者，构建期间不需要持有锁，查询照常进行
+     * @param watermark 新段的构建水位
+     */
+    private void writeSegment(long watermark) throws IOException {
+        List<Long> articleIds = new ArrayList<>();
+        List<Integer> lengths = new ArrayList<>();
+        int[] remap = new int[segment.getDocCount()];
+        for (int ordinal = 0; ordinal < segment.getDocCount(); ordinal++) {
+            long articleId = segment.articleIdAt(ordinal);
+            if (superseded.contains(articleId)) {
+                remap[ordinal] = -1;
+            } else {
+                remap[ordinal] = articleIds.size();
+                articleIds.add(articleId);
+                lengths.add(segment.lengthAt(ordinal));
+            }
+        }
+
+        Map<String, List<Integer>> merged = new HashMap<>();
+        segment.forEachTerm((term, postings) -> {
+            List<Integer> list = new ArrayList<>();
+            postings.applyAsInt((ordinal, frequency) -> {
+                if (remap[ordinal] >= 0) {
+                    list.add(remap[ordinal]);
+                    list.add(frequency);
+                }
+            });
+            if (!list.isEmpty()) {
+                merged.put(term, list);
+            }
+        });
+        for (IndexedDocument doc : memoryDocs.values()) {
+            int ordinal = articleIds.size();
+            articleIds.add(doc.getArticleId());
+            lengths.add(doc.getLength());
+            doc.getTermFrequencies().forEach((term, frequency) -> {
+                List<Integer> list = merged.computeIfAbsent(term, key -> new ArrayList<>());
+                list.add(ordinal);
+                list.add(frequency);
+            });
+        }
+
+        TreeMap<String, int[]> postings = new TreeMap<>();
+        merged.forEach((term, list) -> postings.put(term, list.stream().mapToInt(Integer::intValue).toArray()));
+        merged.clear();
+
+        Path path = Paths.get(indexDir).resolve(SEGMENT_PREFIX + watermark + SEGMENT_SUFFIX);
+        IndexSegment.write(path, watermark, articleIds, lengths, postings);
+        swapSegment(IndexSegment.open(path));
+        pendingChanges = 0;
+        log.info("全文索引段已写入 {}，共{}篇文章，{}个词项", path, articleIds.size(), postings.size());
+    }
+
+    // 新段已包含全部内存增量：替换后清空增量，并删除旧段文件（已建立的映射在 Linux 上仍可读取）
+    private void swapSegment(IndexSegment next) {
+        IndexSegment previous;
+        lock.writeLock().lock();
+        try {
+            previous = segment;
+            segment = next;
+            memoryDocs.clear();
+            memoryPostings.clear();
+            memoryLength = 0;
+            superseded.clear();
+            supersededLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (previous.getPath() != null && !previous.getPath().equals(next.getPath())) {
+            try {
+                Files.deleteIfExists(previous.getPath());
+            } catch (IOException e) {
+                log.warn("删除旧索引段失败 {}: {}", previous.getPath(), e.getMessage());
+            }
+        }
+    }
+
+    // 段文件名中的时间戳即水位，取最大的一个；文件损坏时返回 null，改为全量构建
+    private IndexSegment openLatestSegment(Path dir) throws IOException {
+        Path latest;
+        try (Stream<Path> files = Files.list(dir)) {
+            latest = files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .max(Comparator.comparingLong(this::segmentWatermark))
+                    .orElse(null);
+        }
+        if (latest == null) {
+            return null;
+        }
+        try {
+            return IndexSegment.open(latest);
+        } catch (IOException | RuntimeException e) {
+            log.warn("索引段 {} 无法读取，将全量重建: {}", latest, e.getMessage());
+            return null;
+        }
+    }
+
+    private long segmentWatermark(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
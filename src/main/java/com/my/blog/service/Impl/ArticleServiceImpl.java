@@ -3,46 +3,51 @@ package com.my.blog.service.Impl;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.my.blog.entity.ArticleTag;
 import com.my.blog.repository.UserRepository;
+import com.my.blog.search.SearchHits;
 import com.my.blog.service.ArticleTagRelationService;
+import com.my.blog.utils.CacheVersion;
+import com.my.blog.utils.HttpCacheUtils;
+import com.my.blog.utils.PageCursor;
 import com.my.blog.utils.RedisUtils;
+import com.my.blog.utils.SingleFlight;
 import com.my.blog.dto.request.ArticleCreateDTO;
+import com.my.blog.dto.response.ArticleSummary;
+import com.my.blog.dto.response.CursorPage;
 import com.my.blog.entity.Article;
 import com.my.blog.entity.ArticleCategory;
-import com.my.blog.entity.ArticleTagRelation;
 import com.my.blog.exception.CustomException;
 import com.my.blog.exception.ErrorCode;
-import com.my.blog.repository.ArticleCategoryRepository;
 import com.my.blog.repository.ArticleRepository;
 import com.my.blog.repository.ArticleTagRelationRepository;
-import com.my.blog.repository.ArticleTagRepository;
 import com.my.blog.service.ArticleService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
+@Slf4j
 @Transactional  //保持原子性
 @Service
 @RequiredArgsConstructor
 public class ArticleServiceImpl implements ArticleService {
 
     private final ArticleRepository articleRepository;
-    private final ArticleTagRepository articleTagRepository;
     private final UserRepository userRepository;
     private final ArticleTagRelationRepository articleTagRelationRepository;
-    private final ArticleCategoryRepository articleCategoryRepository;
-
-    @Autowired
-    private ObjectMapper objectMapper;
 
     @Autowired
     private ArticleTagRelationService articleTagRelationService;
@@ -50,11 +55,44 @@ public class ArticleServiceImpl implements ArticleService {
     @Autowired
     private RedisUtils redisUtils; // 使用RedisUtils
 
+    @Autowired
+    private ArticleCacheService articleCacheService; // 文章两级缓存（本地L1 + Redis）
+
+    @Autowired
+    private SingleFlight singleFlight; // 缓存未命中时合并并发加载
+
+    @Autowired
+    private ArticleBloomFilterService articleBloomFilterService; // 已发布文章ID布隆过滤器
+
+    @Autowired
+    private ViewCountService viewCountService; // 浏览量内存计数 + 定时批量写库
+
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService; // 事务提交后统一失效缓存
+
+    @Autowired
+    private FeedCacheService feedCacheService; // 公开文章列表头部缓存（Redis 有序集合）
+
+    @Autowired
+    private ArticleSearchService articleSearchService; // 进程内全文索引
+
+    @Autowired
+    private ArticleCountService articleCountService; // 标签/分类已发布文章数
+
+    @Autowired
+    private ArticleFilterIndex articleFilterIndex; // 标签/分类压缩位图过滤索引
+
+    @Autowired
+    private TaxonomyDictionary taxonomyDictionary; // 进程内标签/分类字典
+
+    @Value("${search.backend:index}")
+    private String searchBackend; // 文章检索后端：index / fulltext / like
+
     @Override
     public Article createArticle(ArticleCreateDTO articleDTO) {
 
         // 分类存在性校验
-        ArticleCategory category = articleCategoryRepository.findByName(articleDTO.getCategoryName());
+        ArticleCategory category = taxonomyDictionary.findCategoryByName(articleDTO.getCategoryName());
         if (category == null){
             throw new CustomException(ErrorCode.CATEGORY_NOT_FOUND);
         }
@@ -78,12 +116,11 @@ public class ArticleServiceImpl implements ArticleService {
             throw new RuntimeException("主键没回填");
         }
 
-        // 处理标签关联
+        // 处理标签关联（草稿不计入标签/分类的文章数，审核时再计入）
         processArticleTags(article, articleDTO.getTagIds());
 
-        // 保存文章到Redis
-        String redisKey = "article:" + article.getArticleId();
-        redisUtils.set(redisKey, article,1, TimeUnit.HOURS);
+        // 新文章为草稿，审核通过前不可读，不写入缓存、不加入布隆过滤器，也不影响标签/分类版本；
+        // 草稿→发布的缓存失效由 reviewArticle 统一处理
 
         return article;
 
@@ -96,10 +133,17 @@ public class ArticleServiceImpl implements ArticleService {
         if(articleRepository.selectById(articleId) == null){
             throw new CustomException(ErrorCode.ARTICLE_NOT_FOUND);
         }
+        ArticleCountService.Contribution before = articleCountService.snapshot(articleId);
 
         //返回受影响的行数
         int result = articleRepository.deleteById(articleId);
 
+        // 提交后清除缓存并写入负缓存
+        articleCountService.changed(before, ArticleCountService.Contribution.NONE);
+        cacheInvalidationService.articlesDeleted(List.of(articleId));
+        cacheInvalidationService.tagsChanged();
+        cacheInvalidationService.categoriesChanged();
+
         return result;
     }
 
@@ -113,6 +157,7 @@ public class ArticleServiceImpl implements ArticleService {
 
         //2.根据作者id查询出当前作者所发布的所有文章的id
         List<Long> articleIds = articleRepository.selectArticleIdsByAuthorId(authorId);
+        Map<Long, ArticleCountService.Contribution> before = articleCountService.snapshot(articleIds);
 
         // 2. 删除这些文章的标签关联
         if (!articleIds.isEmpty()) {
@@ -122,93 +167,267 @@ public class ArticleServiceImpl implements ArticleService {
 
         int result = articleRepository.deleteArticleByAuthorId(authorId);
 
+        articleCountService.deleted(before);
+        cacheInvalidationService.articlesDeleted(articleIds);
+        cacheInvalidationService.tagsChanged();
+        cacheInvalidationService.categoriesChanged();
+
         return result;
 
     }
 
     @Override
-    public List selectArticleByTitle(String title) {
-
-        //当文章不为草稿状态才能查询成功,查询不成功返回空列表
-        List<Article> articles = articleRepository.selectList(
-                new QueryWrapper<Article>()
-                        .like("title",title) //模糊查询
-                        .ne("status","draft") //ne:not equal
-        );
+    public IPage<ArticleSummary> searchArticles(String keyword, int page, int size) {
+        int pageSize = CursorPage.normalizeSize(size);
+        int pageNum = Math.max(page, 1);
+
+        IPage<ArticleSummary> result = switch (searchBackend) {
+            // MySQL FULLTEXT(ngram) 索引，按相关度排序
+            case "fulltext" -> articleRepository.selectSummaryPageByFulltext(new Page<>(pageNum, pageSize), keyword);
+            // 标题模糊查询（全表扫描，仅用于对比或小数据量）
+            case "like" -> articleRepository.selectSummaryPageByTitle(new Page<>(pageNum, pageSize), keyword);
+            // 进程内全文索引（标题+摘要+正文，按相关度排序），索引未就绪时回退到标题模糊查询
+            default -> {
+                SearchHits hits = articleSearchService.search(keyword, pageNum, pageSize);
+                if (hits == null) {
+                    yield articleRepository.selectSummaryPageByTitle(new Page<>(pageNum, pageSize), keyword);
+                }
+                IPage<ArticleSummary> indexPage = new Page<>(pageNum, pageSize, hits.getTotal());
+                indexPage.setRecords(loadSummariesInOrder(hits.getArticleIds()));
+                yield indexPage;
+            }
+        };
 
-        if (articles == null || articles.isEmpty()){
+        //当文章不为草稿状态才能查询成功，只查询列表列（不含正文）
+        if (result.getTotal() == 0) {
             throw new CustomException(ErrorCode.ARTICLE_NOT_FOUND);
         }
 
-        return articles;
+        return withTags(result);
     }
 
+    @Override
+    public IPage<ArticleSummary> filterArticles(List<Long> allTagIds, List<Long> anyTagIds, List<Long> excludedTagIds,
+                                                String categoryName, int page, int size) {
+        int pageSize = CursorPage.normalizeSize(size);
+        int pageNum = Math.max(page, 1);
+        Set<Long> all = distinctIds(allTagIds);
+        Set<Long> any = distinctIds(anyTagIds);
+        Set<Long> excluded = distinctIds(excludedTagIds);
+
+        // 条件中引用的标签必须都存在（缺失的ID一并报告）
+        Set<Long> referenced = new LinkedHashSet<>(all);
+        referenced.addAll(any);
+        referenced.addAll(excluded);
+        if (!referenced.isEmpty()) {
+            Set<Long> existingIds = taxonomyDictionary.findTags(referenced).keySet();
+            List<Long> missingIds = referenced.stream().filter(tagId -> !existingIds.contains(tagId)).toList();
+            if (!missingIds.isEmpty()) {
+                throw new CustomException(ErrorCode.TAG_NOT_FOUND, missingIds.toString());
+            }
+        }
 
-    private void processArticleTags(Article article, List<Long> tagIds) {
-        tagIds.forEach(tagId -> {
-            ArticleTag tag = articleTagRepository.findById(tagId);
-            if (tag == null) {
-                throw new CustomException(ErrorCode.TAG_NOT_FOUND);
+        // 分类条件包含其全部子分类
+        Set<String> categories = Set.of();
+        if (categoryName != null && !categoryName.isBlank()) {
+            categories = taxonomyDictionary.subtreeNames(categoryName.trim());
+            if (categories.isEmpty()) {
+                throw new CustomException(ErrorCode.CATEGORY_NOT_FOUND);
+            }
+        }
+
+        // 压缩位图过滤索引，未就绪时回退到数据库 EXISTS 查询
+        SearchHits hits = articleFilterIndex.filter(all, any, excluded, categories, pageNum, pageSize);
+        if (hits == null) {
+            return withTags(articleRepository.selectSummaryPageByFilter(
+                    new Page<>(pageNum, pageSize), all, any, excluded, categories));
+        }
+        IPage<ArticleSummary> result = new Page<>(pageNum, pageSize, hits.getTotal());
+        result.setRecords(loadSummariesInOrder(hits.getArticleIds()));
+        return withTags(result);
+    }
+
+    // 列表接口返回前按页批量填充标签（一次 IN 查询），客户端不需要再逐篇请求标签
+    private IPage<ArticleSummary> withTags(IPage<ArticleSummary> page) {
+        articleTagRelationService.attachTags(page.getRecords());
+        return page;
+    }
+
+    private Set<Long> distinctIds(List<Long> ids) {
+        Set<Long> distinct = new LinkedHashSet<>();
+        if (ids != null) {
+            ids.stream().filter(Objects::nonNull).forEach(distinct::add);
+        }
+        return distinct;
+    }
+
+    // 按检索结果的顺序批量加载列表项（一条 IN 查询），索引与数据库短暂不一致时缺失的文章直接跳过
+    private List<ArticleSummary> loadSummariesInOrder(List<Long> articleIds) {
+        if (articleIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ArticleSummary> summaries = new HashMap<>();
+        for (ArticleSummary summary : articleRepository.selectSummariesByIds(articleIds)) {
+            summaries.put(summary.getArticleId(), summary);
+        }
+        List<ArticleSummary> ordered = new ArrayList<>(articleIds.size());
+        for (Long articleId : articleIds) {
+            ArticleSummary summary = summaries.get(articleId);
+            if (summary != null) {
+                ordered.add(summary);
             }
+        }
+        return ordered;
+    }
 
-            ArticleTagRelation relation = new ArticleTagRelation();
+    // 在标签字典中校验全部标签（字典中没有的ID用一次 IN 查询确认，缺失的ID一并报告），再用一条多行 INSERT 写入关联
+    private void processArticleTags(Article article, List<Long> tagIds) {
+        Set<Long> distinctIds = new LinkedHashSet<>(tagIds);
+        distinctIds.remove(null);
+        if (distinctIds.isEmpty()) {
+            throw new CustomException(ErrorCode.TAG_NOT_FOUND);
+        }
 
-            // 直接设置主键字段（非关联对象）
-            relation.setArticleId(article.getArticleId());
-            relation.setTagId(tag.getTagId());
+        Set<Long> existingIds = taxonomyDictionary.findTags(distinctIds).keySet();
+        List<Long> missingIds = distinctIds.stream()
+                .filter(tagId -> !existingIds.contains(tagId))
+                .toList();
+        if (!missingIds.isEmpty()) {
+            throw new CustomException(ErrorCode.TAG_NOT_FOUND, missingIds.toString());
+        }
 
-            articleTagRelationRepository.insert(relation);
-        });
+        articleTagRelationRepository.insertBatch(article.getArticleId(), distinctIds);
     }
 
     @Override
-    public IPage<Article> getAllArticles(int page, int size) {
-        Page<Article> pageParam = new Page<>(page, size);
-        return articleRepository.selectPage(pageParam,
-                new QueryWrapper<Article>()
-                        .ne("status","draft") //status not equal draft
-                        .orderByDesc("publish_time"));
+    public IPage<ArticleSummary> getAllArticles(int page, int size, boolean withTotal) {
+        // 前几页直接从 Redis 中的列表头部缓存读取
+        IPage<ArticleSummary> cached = feedCacheService.getPage(page, size, withTotal);
+        if (cached != null) {
+            return withTags(cached);
+        }
+
+        // 列表只查询展示需要的列，正文只在详情接口中加载；不需要总数时省掉 COUNT 查询
+        Page<ArticleSummary> pageParam = new Page<>(page, size, withTotal);
+        return withTags(articleRepository.selectSummaryPage(pageParam, false));
+    }
+
+    @Override
+    public CursorPage<ArticleSummary> getArticlesByCursor(String cursor, int size, boolean withTotal) {
+        PageCursor position = PageCursor.decode(cursor);
+        int pageSize = CursorPage.normalizeSize(size);
+
+        // 多取一条用于判断是否还有下一页
+        List<ArticleSummary> rows = articleRepository.selectSummariesAfter(
+                position == null ? null : position.getTime(),
+                position == null ? null : position.getId(),
+                pageSize + 1, false);
+
+        Long total = withTotal
+                ? articleRepository.selectCount(new QueryWrapper<Article>().ne("status", "draft"))
+                : null;
+        CursorPage<ArticleSummary> result = CursorPage.of(rows, pageSize,
+                last -> PageCursor.encode(last.getPublishTime(), last.getArticleId()), total);
+        articleTagRelationService.attachTags(result.getRecords());
+        return result;
     }
 
     // ... 现有代码 ...
 
+    // 读路径不开启事务：缓存未命中时可能在 SingleFlight 中等待其他节点回填（最长 wait-millis），
+    // 开启事务会在整个等待期间占用一个数据库连接，热点文章的并发请求会耗尽连接池
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Article getArticleById(Long articleId) {
-        // 先尝试从Redis缓存获取
-        String redisKey = "article:" + articleId;
-        Object cached = redisUtils.get(redisKey);
-
-        // 缓存命中，进行安全类型转换
-        if (cached instanceof Article){
-            return (Article) cached;
-        }else if (cached != null){
-            // 处理可能的旧格式缓存数据（如JSON反序列化为Map的情况）
-            return convertToArticle(cached);
+        return recordView(findArticle(articleId));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Article findArticleById(Long articleId) {
+        return findArticle(articleId);
+    }
+
+    // 只读 Redis 中的两个计数，不加载文章；读取失败时返回 null，由调用方按文章本身校验
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CacheVersion getArticleVersion(Long articleId) {
+        try {
+            return articleCacheService.validatorVersion(articleId);
+        } catch (Exception e) {
+            log.warn("读取文章{}的校验版本失败: {}", articleId, e.getMessage());
+            return null;
         }
+    }
 
+    @Override
+    public Article recordView(Article article) {
+        // 缓存命中与否都记一次浏览（只写内存），返回 数据库计数 + 未落库增量
+        incrementViewCount(article.getArticleId());
+        return viewCountService.withPendingViews(article);
+    }
 
-        // 如果缓存中没有，则从数据库查询
+    // 依次经过布隆过滤器、两级缓存、负缓存，最后合并加载数据库
+    private Article findArticle(Long articleId) {
+        // 布隆过滤器判定一定未发布的ID，直接返回不存在
+        if (!articleBloomFilterService.mightContain(articleId)) {
+            throw new CustomException(ErrorCode.ARTICLE_NOT_FOUND);
+        }
+
+        // 先尝试从两级缓存获取（本地L1 -> Redis）
+        Article cached = articleCacheService.get(articleId, () -> loadArticle(articleId));
+        if (cached != null) {
+            return cached;
+        }
+
+        // 负缓存命中：近期已确认不存在
+        if (articleCacheService.isMarkedMissing(articleId)) {
+            throw new CustomException(ErrorCode.ARTICLE_NOT_FOUND);
+        }
+
+        // 如果缓存中没有，则从数据库查询（集群内同一篇文章同时只有一个加载者，其余等待缓存回填）
+        return singleFlight.executeWithLease("article:" + articleId,
+                () -> readCachedOrMissing(articleId),
+                () -> loadArticle(articleId));
+    }
+
+    // 等待其他节点加载时的缓存读取：负缓存出现说明加载者已确认文章不存在
+    private Article readCachedOrMissing(Long articleId) {
+        Article cached = articleCacheService.get(articleId, () -> loadArticle(articleId));
+        if (cached == null && articleCacheService.isMarkedMissing(articleId)) {
+            throw new CustomException(ErrorCode.ARTICLE_NOT_FOUND);
+        }
+        return cached;
+    }
+
+    // 从数据库加载文章并回填缓存
+    private Article loadArticle(Long articleId) {
+        // 先取版本号再查库：查询期间发生的变更会使这次写回落在旧版本上
+        long version = articleCacheService.currentVersion(articleId);
+        long start = System.nanoTime();
         Article article = articleRepository.selectOne(
                 new QueryWrapper<Article>()
                         .eq("article_id", articleId)
                         .ne("status", "draft")
         );
 
-        // 统一处理空值
+        // 统一处理空值，并写入负缓存
         if (article == null ) {
+            articleCacheService.markMissing(articleId, version);
             throw new CustomException(ErrorCode.ARTICLE_NOT_FOUND);
         }
 
-        // 更新缓存并增加阅读量
-        incrementViewCount(articleId);
-        redisUtils.set(redisKey, article, 1, TimeUnit.HOURS);
+        // 更新缓存，并补齐 HTTP 校验版本的变更时间
+        articleCacheService.put(article, version, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        long modifiedMillis = HttpCacheUtils.lastModifiedMillis(article);
+        articleCacheService.initModified(articleId, modifiedMillis >= 0 ? modifiedMillis : System.currentTimeMillis());
 
         return article;
     }
 
     @Override
     public void incrementViewCount(Long articleId) {
-        articleRepository.incrementViewCount(articleId);
+        viewCountService.increment(articleId);
     }
 
     /**
@@ -233,27 +452,4 @@ public class ArticleServiceImpl implements ArticleService {
 
         return summary;
     }
-
-    // 新增类型转换方法
-    private Article convertToArticle(Object obj) {
-
-        try {
-            // 处理字符串类型
-            if (obj instanceof String) {
-                return objectMapper.readValue((String) obj, Article.class);
-            }
-            // 处理Map类型
-            else if (obj instanceof Map) {
-                return objectMapper.convertValue(obj, Article.class);
-            }
-            // 处理其他可能的类型
-            else {
-                // 尝试通过JSON序列化再反序列化
-                String json = objectMapper.writeValueAsString(obj);
-                return objectMapper.readValue(json, Article.class);
-            }
-        } catch (IOException e) {
-            throw new CustomException(ErrorCode.CACHE_DATA_INVALID);
-        }
-    }
 }
@@ -1,11 +1,26 @@
 package com.my.blog.service.Impl;
 
+import com.my.blog.dto.response.ArticleSummary;
+import com.my.blog.entity.ArticleTag;
+import com.my.blog.entity.ArticleTagRelation;
+import com.my.blog.exception.CustomException;
+import com.my.blog.exception.ErrorCode;
 import com.my.blog.repository.ArticleTagRelationRepository;
+import com.my.blog.repository.ArticleTagRepository;
 import com.my.blog.service.ArticleTagRelationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
 
 @Service
 public class ArticleTagRelationServiceImpl implements ArticleTagRelationService {
@@ -13,10 +28,97 @@ public class ArticleTagRelationServiceImpl implements ArticleTagRelationService
     @Autowired
     private ArticleTagRelationRepository articleTagRelationRepository;
 
+    @Autowired
+    private ArticleTagRepository articleTagRepository;
+
+    @Autowired
+    private TaxonomyDictionary taxonomyDictionary;
+
     @Override
     public void deleteByArticleIds(List<Long> articleIds) {
         if (articleIds != null && !articleIds.isEmpty()) {
             articleTagRelationRepository.deleteByArticleIds(articleIds);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 查询次数固定：当前关联 1 次 + 按名称解析最多 1 次（全部命中标签字典时为 0）（有新标签时再加 批量创建 + 重新解析 2 次）
+     * 只对新增/移除的关联执行写操作，标签未变时不产生任何写入，也就不会锁住关联表中的行
+     * 增删按标签ID升序执行，并发修改同一批行时加锁顺序一致
+     */
+    @Override
+    public boolean syncTagsByName(Long articleId, Collection<String> tagNames) {
+        Set<String> names = new LinkedHashSet<>();
+        for (String tagName : tagNames) {
+            if (tagName != null && !tagName.isBlank()) {
+                names.add(tagName.trim());
+            }
+        }
+
+        Map<String, Long> resolved = resolveTagIds(names);
+        boolean created = false;
+        if (resolved.size() < names.size()) {
+            List<String> missing = names.stream().filter(name -> !resolved.containsKey(name)).toList();
+            // INSERT IGNORE：与并发创建同名标签的请求不冲突，再统一查询一次拿到ID
+            created = articleTagRepository.insertIgnoreBatch(missing) > 0;
+            resolved.putAll(resolveTagIds(missing));
+            if (resolved.size() < names.size()) {
+                throw new CustomException(ErrorCode.OPERATION_FAILED);
+            }
+        }
+
+        Set<Long> current = new TreeSet<>(articleTagRelationRepository.selectTagIdsByArticleId(articleId));
+        Set<Long> desired = new TreeSet<>(resolved.values());
+
+        Set<Long> toRemove = new TreeSet<>(current);
+        toRemove.removeAll(desired);
+        Set<Long> toAdd = new TreeSet<>(desired);
+        toAdd.removeAll(current);
+
+        if (!toRemove.isEmpty()) {
+            articleTagRelationRepository.deleteByArticleIdAndTagIds(articleId, toRemove);
+        }
+        if (!toAdd.isEmpty()) {
+            articleTagRelationRepository.insertBatch(articleId, toAdd);
+        }
+        return created || !toRemove.isEmpty() || !toAdd.isEmpty();
+    }
+
+    @Override
+    public List<ArticleSummary> attachTags(List<ArticleSummary> summaries) {
+        List<Long> articleIds = summaries.stream().map(ArticleSummary::getArticleId).toList();
+        if (articleIds.isEmpty()) {
+            return summaries;
+        }
+        Map<Long, List<Long>> tagIdsByArticle = new HashMap<>();
+        Set<Long> tagIds = new HashSet<>();
+        for (ArticleTagRelation relation : articleTagRelationRepository.selectByArticleIds(articleIds)) {
+            tagIdsByArticle.computeIfAbsent(relation.getArticleId(), key -> new ArrayList<>()).add(relation.getTagId());
+            tagIds.add(relation.getTagId());
+        }
+
+        // 字典中的实体是共享对象，每个标签复制一次，同一页内复用
+        Map<Long, ArticleTag> tags = new HashMap<>();
+        taxonomyDictionary.findTags(tagIds).forEach((tagId, tag) -> tags.put(tagId,
+                ArticleTag.builder().tagId(tag.getTagId()).tagName(tag.getTagName()).build()));
+
+        for (ArticleSummary summary : summaries) {
+            summary.setTags(tagIdsByArticle.getOrDefault(summary.getArticleId(), List.of()).stream()
+                    .sorted()
+                    .map(tags::get)
+                    .filter(Objects::nonNull)  // 关联到已删除标签的脏数据
+                    .toList());
+        }
+        return summaries;
+    }
+
+    // 通过标签字典把标签名解析为ID（字典中没有的名称用一次 IN 查询）
+    private Map<String, Long> resolveTagIds(Collection<String> names) {
+        Map<String, Long> ids = new HashMap<>();
+        if (names.isEmpty()) {
+            return ids;
+        }
+        taxonomyDictionary.findTagsByNames(names).forEach((name, tag) -> ids.put(name, tag.getTagId()));
+        return ids;
+    }
+}
@@ -1,18 +1,22 @@
 package com.my.blog.service.Impl;
 
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.my.blog.dto.request.ArticleTagCreateDTO;
-import com.my.blog.entity.Article;
+import com.my.blog.dto.response.ArticleSummary;
+import com.my.blog.dto.response.CursorPage;
 import com.my.blog.entity.ArticleCategory;
 import com.my.blog.entity.ArticleTag;
 import com.my.blog.exception.CustomException;
 import com.my.blog.exception.ErrorCode;
 import com.my.blog.repository.ArticleTagRepository;
+import com.my.blog.service.ArticleTagRelationService;
 import com.my.blog.service.ArticleTagService;
+import com.my.blog.utils.PageCursor;
+import com.my.blog.utils.SingleFlight;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -20,6 +24,16 @@ public class ArticleTagServiceImpl implements ArticleTagService {
 
     private final ArticleTagRepository articleTagRepository;
 
+    private final SingleFlight singleFlight; // 合并同一查询的并发请求
+
+    private final CacheInvalidationService cacheInvalidationService; // 统一失效缓存
+
+    private final TaxonomyDictionary taxonomyDictionary; // 进程内标签字典
+
+    private final ArticleTagRelationService articleTagRelationService; // 列表按页批量填充标签
+
+    private final ArticleCountService articleCountService; // 标签的已发布文章数
+
     @Override
     public boolean findByName() {
         // 这个方法应该接收一个参数，或者应该调用repository的方法
@@ -33,7 +47,7 @@ public class ArticleTagServiceImpl implements ArticleTagService {
     @Override
     public ArticleTag createTag(ArticleTagCreateDTO articleTagCreateDTO) {
 
-        if (articleTagRepository.findByName(articleTagCreateDTO.getTagName())){
+        if (taxonomyDictionary.findTagByName(articleTagCreateDTO.getTagName()) != null){
             throw new CustomException(ErrorCode.TAG_ALREADY_EXISTS);
         }
 
@@ -44,14 +58,23 @@ public class ArticleTagServiceImpl implements ArticleTagService {
 
         //插入标签
         articleTagRepository.insert(articleTag);
+        cacheInvalidationService.tagsChanged();
 
         return articleTag;
     }
 
-    //查询所有标签
+    //查询所有标签（附带已发布文章数，Redis 不可用时使用数据库中最近一次校正的值）
     @Override
     public List<ArticleTag> selectAll() {
-        return articleTagRepository.selectList(new QueryWrapper<>());
+        Map<Long, Long> counts = articleCountService.tagCounts();
+        // 字典中的实体是共享对象，复制后再填充文章数
+        return taxonomyDictionary.allTags().stream()
+                .map(tag -> ArticleTag.builder()
+                        .tagId(tag.getTagId())
+                        .tagName(tag.getTagName())
+                        .articleCount(counts == null ? null : counts.getOrDefault(tag.getTagId(), 0L))
+                        .build())
+                .toList();
 
     }
 
@@ -63,6 +86,7 @@ public class ArticleTagServiceImpl implements ArticleTagService {
         if (result == 0){
             throw new CustomException(ErrorCode.TAG_NOT_FOUND);
         }
+        cacheInvalidationService.tagsChanged();
         return result;
     }
 
@@ -75,7 +99,8 @@ public class ArticleTagServiceImpl implements ArticleTagService {
         }
 
         // 调用Repository方法获取文章的所有标签
-        List<ArticleTag> tags = articleTagRepository.findTagsByArticleId(articleId);
+        List<ArticleTag> tags = singleFlight.execute("tag:article:" + articleId,
+                () -> articleTagRepository.findTagsByArticleId(articleId));
 
         if (tags == null || tags.isEmpty()) {
             // 如果没有找到标签，可以返回空列表或抛出异常，这里选择返回空列表
@@ -85,23 +110,39 @@ public class ArticleTagServiceImpl implements ArticleTagService {
         return tags;
     }
 
-    //根据标签ID获取所有使用该标签的文章
+    //根据标签ID游标分页获取使用该标签的已发布文章
     @Override
-    public List<Article> getArticlesByTagId(Long tagId) {
+    public CursorPage<ArticleSummary> getArticlesByTagId(Long tagId, String cursor, int size, boolean withTotal) {
         // 检查标签是否存在
         if (tagId == null || tagId <= 0) {
             throw new CustomException(ErrorCode.TAG_NOT_FOUND);
         }
 
-        ArticleTag tag = articleTagRepository.findById(tagId);
+        ArticleTag tag = taxonomyDictionary.findTag(tagId);
         if (tag == null) {
             throw new CustomException(ErrorCode.TAG_NOT_FOUND);
         }
 
-        // 调用Repository方法获取使用该标签的所有文章
-        List<Article> articles = articleTagRepository.findArticlesByTagId(tagId);
-
-        return articles;
+        PageCursor position = PageCursor.decode(cursor);
+        int pageSize = CursorPage.normalizeSize(size);
+
+        // 多取一条用于判断是否还有下一页
+        List<ArticleSummary> rows = singleFlight.execute("tag:articles:" + tagId + ":" + cursor + ":" + pageSize,
+                () -> articleTagRepository.findArticlesByTagId(tagId,
+                        position == null ? null : position.getTime(),
+                        position == null ? null : position.getId(),
+                        pageSize + 1));
+
+        // 总数直接取维护好的已发布文章数，不执行 COUNT
+        Long total = null;
+        if (withTotal) {
+            Map<Long, Long> counts = articleCountService.tagCounts();
+            total = counts == null ? null : counts.getOrDefault(tagId, 0L);
+        }
+        CursorPage<ArticleSummary> result = CursorPage.of(rows, pageSize,
+                last -> PageCursor.encode(last.getPublishTime(), last.getArticleId()), total);
+        articleTagRelationService.attachTags(result.getRecords());
+        return result;
     }
 
 }
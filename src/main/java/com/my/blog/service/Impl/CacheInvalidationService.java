@@ -0,0 +1,183 @@
+package com.my.blog.service.Impl;
+
+import com.my.blog.event.ArticleChangedEvent;
+import com.my.blog.event.TaxonomyChangedEvent;
+import com.my.blog.utils.CacheVersion;
+import com.my.blog.utils.RedisUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 统一的写路径缓存失效入口
+ * 所有文章、标签、分类的写操作都通过这里登记失效动作，动作在事务提交后才执行（无事务时立即执行）：
+ * 回滚的写操作不会误删缓存，提交前也不会有读请求把旧数据重新写回缓存
+ * 文章通过版本号失效（见 ArticleCacheService），标签/分类通过命名空间版本号失效
+ * 命名空间版本号保存为 Redis 哈希（version 版本号 / modified 变更时间），同时作为标签、分类接口的 ETag 来源
+ */
+@Slf4j
+@Service
+public class CacheInvalidationService {
+
+    /**
+     * 标签数据的命名空间版本号（任何标签或文章-标签关联变更后加一）
+     */
+    public static final String TAG_VERSION_KEY = "cache:version:tag";
+
+    /**
+     * 分类数据的命名空间版本号（任何分类变更后加一）
+     */
+    public static final String CATEGORY_VERSION_KEY = "cache:version:category";
+
+    private static final String VERSION_FIELD = "version";
+
+    private static final String MODIFIED_FIELD = "modified";
+
+    @Autowired
+    private ArticleCacheService articleCacheService;
+
+    @Autowired
+    private ArticleBloomFilterService articleBloomFilterService;
+
+    @Autowired
+    private FeedCacheService feedCacheService;
+
+    @Autowired
+    private RedisUtils redisUtils;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 文章内容或状态发生变更
+     * @param articleId 文章ID
+     */
+    public void articleChanged(Long articleId) {
+        afterCommit(() -> {
+            invalidateArticle(articleId);
+            feedCacheService.articleChanged(articleId);
+        });
+    }
+
+    /**
+     * 文章审核完成（通过或驳回后都不再是草稿，对外可读）
+     * @param articleId 文章ID
+     */
+    public void articlePublished(Long articleId) {
+        afterCommit(() -> {
+            articleBloomFilterService.add(articleId);
+            invalidateArticle(articleId);
+            feedCacheService.articlePublished(articleId);
+        });
+    }
+
+    /**
+     * 文章被删除：失效缓存并写入负缓存（布隆过滤器无法删除元素）
+     * @param articleIds 文章ID列表
+     */
+    public void articlesDeleted(Collection<Long> articleIds) {
+        List<Long> ids = List.copyOf(articleIds);
+        afterCommit(() -> {
+            ids.forEach(articleId -> articleCacheService.markMissing(articleId, invalidateArticle(articleId)));
+            feedCacheService.articlesDeleted(ids);
+        });
+    }
+
+    /**
+     * 标签或文章-标签关联发生变更
+     */
+    public void tagsChanged() {
+        afterCommit(() -> {
+            try {
+                bumpVersion(TAG_VERSION_KEY);
+            } finally {
+                // Redis 不可用时本节点照常刷新
+                eventPublisher.publishEvent(new TaxonomyChangedEvent(this, TaxonomyChangedEvent.Kind.TAG));
+            }
+        });
+    }
+
+    /**
+     * 分类发生变更
+     */
+    public void categoriesChanged() {
+        afterCommit(() -> {
+            try {
+                bumpVersion(CATEGORY_VERSION_KEY);
+            } finally {
+                // Redis 不可用时本节点照常刷新
+                eventPublisher.publishEvent(new TaxonomyChangedEvent(this, TaxonomyChangedEvent.Kind.CATEGORY));
+            }
+        });
+    }
+
+    /**
+     * 读取标签数据的当前版本
+     * @return 版本号与最近变更时间
+     */
+    public CacheVersion tagVersion() {
+        return readVersion(TAG_VERSION_KEY);
+    }
+
+    /**
+     * 读取分类数据的当前版本
+     * @return 版本号与最近变更时间
+     */
+    public CacheVersion categoryVersion() {
+        return readVersion(CATEGORY_VERSION_KEY);
+    }
+
+    private void bumpVersion(String key) {
+        redisUtils.hashIncrement(key, VERSION_FIELD, 1);
+        redisUtils.hashPut(key, MODIFIED_FIELD, System.currentTimeMillis());
+    }
+
+    // 从未变更过（或 Redis 数据丢失）时以当前时间作为初始变更时间，此后各节点读到的都是同一个值
+    private CacheVersion readVersion(String key) {
+        Map<Object, Object> fields = redisUtils.hashGetAll(key);
+        if (!(fields.get(MODIFIED_FIELD) instanceof Number)) {
+            redisUtils.hashPutIfAbsent(key, MODIFIED_FIELD, System.currentTimeMillis());
+            fields = redisUtils.hashGetAll(key);
+        }
+        return new CacheVersion(toLong(fields.get(VERSION_FIELD)), toLong(fields.get(MODIFIED_FIELD)));
+    }
+
+    private long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+
+    private long invalidateArticle(Long articleId) {
+        long version = articleCacheService.invalidate(articleId);
+        eventPublisher.publishEvent(new ArticleChangedEvent(this, articleId, false));
+        return version;
+    }
+
+    // 有活动事务时登记到提交之后执行，否则立即执行；失败只记录日志，不影响已提交的写操作
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    runSafely(action);
+                }
+            });
+        } else {
+            runSafely(action);
+        }
+    }
+
+    private void runSafely(Runnable action) {
+        try {
+            action.run();
+        } catch (Exception e) {
+            log.error("缓存失效执行失败，本地缓存将在TTL到期后自行失效", e);
+        }
+    }
+}
@@ -4,7 +4,7 @@ import com.my.blog.entity.Article;
 import com.my.blog.entity.User;
 import com.my.blog.repository.ArticleRepository;
 import com.my.blog.repository.UserRepository;
-import com.my.blog.utils.RedisUtils;
+import com.my.blog.utils.CachePolicy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.ApplicationArguments;
@@ -16,7 +16,7 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * 缓存预热服务
- * 在应用启动时自动加载热点数据到Redis缓存
+ * 在应用启动时自动加载热点数据到Redis缓存（经 CachePolicy 写入，TTL带抖动，避免预热条目同时过期）
  */
 @Slf4j
 @Service
@@ -29,7 +29,10 @@ public class CacheWarmUpService implements ApplicationRunner {
     private UserRepository userRepository;
     
     @Autowired
-    private RedisUtils redisUtils;
+    private CachePolicy cachePolicy;
+
+    @Autowired
+    private ArticleCacheService articleCacheService;
     
     @Override
     public void run(ApplicationArguments args) {
@@ -56,12 +59,20 @@ public class CacheWarmUpService implements ApplicationRunner {
             // 获取热门文章，例如阅读量最高的前20篇
             List<Article> hotArticles = articleRepository.findTopNByViewCount(10);
             
-            for (Article article : hotArticles) {
-                String redisKey = "article:" + article.getArticleId();
-                redisUtils.set(redisKey, article, 1, TimeUnit.HOURS);
+            int warmed = 0;
+            for (Article hot : hotArticles) {
+                // 与正常加载一样先取版本号再查库，预热期间发生的变更不会被旧数据覆盖
+                long version = articleCacheService.currentVersion(hot.getArticleId());
+                long start = System.nanoTime();
+                Article article = articleRepository.selectById(hot.getArticleId());
+                if (article == null || "draft".equals(article.getStatus())) {
+                    continue;
+                }
+                articleCacheService.put(article, version, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                warmed++;
                 log.debug("已预热文章: {}", article.getTitle());
             }
-            log.info("热门文章预热完成，共预热{}篇文章", hotArticles.size());
+            log.info("热门文章预热完成，共预热{}篇文章", warmed);
         } catch (Exception e) {
             log.error("热门文章预热失败", e);
         }
@@ -77,8 +88,9 @@ public class CacheWarmUpService implements ApplicationRunner {
             List<User> activeUsers = userRepository.findTopNActiveUsers(5);
             
             for (User user : activeUsers) {
-                String redisKey = "user:" + user.getId();
-                redisUtils.set(redisKey, user, 2, TimeUnit.HOURS);
+                // 与 UserServiceImpl.selectByUsername 使用相同的key
+                String redisKey = "user:" + user.getUsername();
+                cachePolicy.set(redisKey, user, 2, TimeUnit.HOURS);
                 log.debug("已预热用户: {}", user.getUsername());
             }
             log.info("活跃用户预热完成，共预热{}个用户", activeUsers.size());
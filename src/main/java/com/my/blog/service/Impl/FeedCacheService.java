@@ -0,0 +1,361 @@
+package com.my.blog.service.Impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.my.blog.dto.response.ArticleSummary;
+import com.my.blog.entity.Article;
+import com.my.blog.repository.ArticleRepository;
+import com.my.blog.utils.RedisUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 公开文章列表头部缓存
+ * 最新的 N 篇已发布文章ID保存在 Redis 有序集合 feed:articles 中（分数为发布时间），
+ * 列表项保存在哈希 feed:articles:summary 中；审核、修改、删除文章后（事务提交后）原地增量维护
+ * 落在窗口内的分页请求只读 Redis：ZREVRANGE 取一页ID，HMGET 批量取列表项，不执行任何 SQL
+ *
+ * 窗口始终是已发布文章按发布时间倒序的一个连续前缀：增量维护只插入排在窗口末尾之前的文章，
+ * 排在末尾之后的文章不插入（窗口包含全部已发布文章时除外），否则窗口中间会缺少文章
+ * 重建只在持有重建锁的一个节点上执行，并用窗口版本号（每次增量维护加一）检测重建期间的并发维护：
+ * 版本号变化时丢弃本次结果重新构建，不会用旧快照覆盖已经应用的维护
+ * 删除会让窗口变短而无法从增量维护中补齐，窗口不足一半时重新构建
+ */
+@Slf4j
+@Service
+public class FeedCacheService implements ApplicationRunner {
+
+    private static final String FEED_KEY = "feed:articles";
+
+    private static final String SUMMARY_KEY = "feed:articles:summary";
+
+    private static final String READY_KEY = "feed:articles:ready";
+
+    private static final String TOTAL_KEY = "feed:articles:total";
+
+    private static final String VERSION_KEY = "feed:articles:version";
+
+    private static final String REBUILD_LOCK_KEY = "feed:articles:rebuild-lock";
+
+    /**
+     * ready 标记的取值：窗口包含全部已发布文章
+     */
+    private static final String READY_COMPLETE = "all";
+
+    /**
+     * ready 标记的取值：窗口已满，只包含最新的一部分文章
+     */
+    private static final String READY_PARTIAL = "1";
+
+    /**
+     * 插入/更新一篇文章；窗口尚未构建（没有 ready 标记）时不做任何事
+     * 窗口包含全部文章时直接插入并裁剪到窗口大小（裁剪后窗口不再完整）；
+     * 否则只插入排在当前末尾之前的文章，排在末尾之后的文章不在窗口中（已在窗口中的移出）
+     * KEYS: 有序集合, 哈希, ready 标记, 版本号；ARGV: 分数, 成员, 列表项JSON, 窗口大小
+     * 返回 1 已写入窗口，2 排在窗口之外，3 排在窗口之外且窗口已不足一半（需要重建），0 窗口未构建
+     */
+    private static final RedisScript<Long> UPSERT_SCRIPT = RedisScript.of(
+            "local ready = redis.call('GET', KEYS[3])\n" +
+            "if not ready then return 0 end\n" +
+            "redis.call('INCR', KEYS[4])\n" +
+            "local score = tonumber(ARGV[1])\n" +
+            "if ready ~= '" + READY_COMPLETE + "' then\n" +
+            "  local tail = redis.call('ZRANGE', KEYS[1], 0, 0, 'WITHSCORES')\n" +
+            "  local tailScore = tail[2] and tonumber(tail[2])\n" +
+            "  if not tailScore or score < tailScore or (score == tailScore and ARGV[2] < tail[1]) then\n" +
+            "    redis.call('ZREM', KEYS[1], ARGV[2])\n" +
+            "    redis.call('HDEL', KEYS[2], ARGV[2])\n" +
+            "    if redis.call('ZCARD', KEYS[1]) * 2 < tonumber(ARGV[4]) then return 3 end\n" +
+            "    return 2\n" +
+            "  end\n" +
+            "end\n" +
+            "redis.call('ZADD', KEYS[1], ARGV[1], ARGV[2])\n" +
+            "redis.call('HSET', KEYS[2], ARGV[2], ARGV[3])\n" +
+            "local overflow = redis.call('ZCARD', KEYS[1]) - tonumber(ARGV[4])\n" +
+            "if overflow > 0 then\n" +
+            "  local removed = redis.call('ZRANGE', KEYS[1], 0, overflow - 1)\n" +
+            "  redis.call('ZREMRANGEBYRANK', KEYS[1], 0, overflow - 1)\n" +
+            "  redis.call('HDEL', KEYS[2], unpack(removed))\n" +
+            "  redis.call('SET', KEYS[3], '" + READY_PARTIAL + "')\n" +
+            "end\n" +
+            "return 1", Long.class);
+
+    /**
+     * 移出窗口（删除、转为草稿）
+     * KEYS: 有序集合, 哈希, ready 标记, 版本号；ARGV: 窗口大小, 成员...
+     * 返回 3 窗口只包含部分文章且已不足一半（需要重建），否则返回 1
+     */
+    private static final RedisScript<Long> REMOVE_SCRIPT = RedisScript.of(
+            "redis.call('INCR', KEYS[4])\n" +
+            "redis.call('ZREM', KEYS[1], unpack(ARGV, 2))\n" +
+            "redis.call('HDEL', KEYS[2], unpack(ARGV, 2))\n" +
+            "if redis.call('GET', KEYS[3]) == '" + READY_PARTIAL + "'\n" +
+            "    and redis.call('ZCARD', KEYS[1]) * 2 < tonumber(ARGV[1]) then return 3 end\n" +
+            "return 1", Long.class);
+
+    /**
+     * 重建完成时切换窗口：版本号与开始重建时一致才用临时key替换，否则丢弃临时key
+     * KEYS: 版本号, 临时有序集合, 临时哈希, 有序集合, 哈希, ready 标记；ARGV: 开始时的版本号, ready 取值, 是否为空窗口
+     * 返回 1 切换成功，0 重建期间发生了增量维护
+     */
+    private static final RedisScript<Long> SWAP_SCRIPT = RedisScript.of(
+            "if (redis.call('GET', KEYS[1]) or '0') ~= ARGV[1] then\n" +
+            "  redis.call('DEL', KEYS[2], KEYS[3])\n" +
+            "  return 0\n" +
+            "end\n" +
+            "if ARGV[3] == '1' then\n" +
+            "  redis.call('DEL', KEYS[4], KEYS[5])\n" +
+            "else\n" +
+            "  redis.call('RENAME', KEYS[2], KEYS[4])\n" +
+            "  redis.call('RENAME', KEYS[3], KEYS[5])\n" +
+            "end\n" +
+            "redis.call('SET', KEYS[6], ARGV[2])\n" +
+            "return 1", Long.class);
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RedisUtils redisUtils;
+
+    @Value("${feed.cache-size:500}")
+    private int cacheSize;  // 缓存的最新文章数
+
+    @Value("${feed.total-ttl-seconds:600}")
+    private long totalTtlSeconds;  // 已发布文章总数的缓存时间（秒），发布/删除时主动清除
+
+    @Value("${feed.rebuild-attempts:3}")
+    private int rebuildAttempts;  // 重建期间持续有增量维护时最多尝试的次数
+
+    @Value("${feed.rebuild-lock-seconds:60}")
+    private long rebuildLockSeconds;  // 重建锁的持有时间上限（秒）
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    /**
+     * 从数据库重新构建窗口：先写临时key，再原子替换，读请求不会看到构建到一半的数据
+     * 多个节点同时启动时只有拿到重建锁的节点执行，其余节点直接使用它构建的窗口
+     */
+    public void rebuild() {
+        String owner = redisUtils.getNodeId();
+        try {
+            if (!Boolean.TRUE.equals(redisUtils.setIfAbsent(REBUILD_LOCK_KEY, owner, rebuildLockSeconds, TimeUnit.SECONDS))) {
+                log.info("其他节点正在构建文章列表头部缓存，跳过");
+                return;
+            }
+        } catch (Exception e) {
+            log.error("文章列表头部缓存构建失败，列表请求将直接查询数据库", e);
+            return;
+        }
+
+        try {
+            for (int attempt = 1; attempt <= rebuildAttempts; attempt++) {
+                if (tryRebuild()) {
+                    return;
+                }
+                log.info("文章列表头部缓存构建期间发生了增量维护，重新构建（第{}次）", attempt);
+            }
+            // 持续有并发维护，停用窗口等待下次重建，期间全部请求走数据库
+            stringRedisTemplate.delete(READY_KEY);
+            log.warn("文章列表头部缓存构建{}次均被并发维护打断，暂时停用缓存窗口", rebuildAttempts);
+        } catch (Exception e) {
+            log.error("文章列表头部缓存构建失败，列表请求将直接查询数据库", e);
+        } finally {
+            try {
+                redisUtils.deleteIfEquals(REBUILD_LOCK_KEY, owner);
+            } catch (Exception e) {
+                log.warn("释放文章列表重建锁失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    // 构建一次窗口，返回是否成功切换（查询数据库之前读取版本号，切换时版本号必须未变）
+    private boolean tryRebuild() throws Exception {
+        String version = stringRedisTemplate.opsForValue().get(VERSION_KEY);
+        List<ArticleSummary> latest = articleRepository.selectSummariesAfter(null, null, cacheSize, false);
+
+        String tempFeedKey = FEED_KEY + ":rebuild";
+        String tempSummaryKey = SUMMARY_KEY + ":rebuild";
+        stringRedisTemplate.delete(List.of(tempFeedKey, tempSummaryKey));
+
+        if (!latest.isEmpty()) {
+            Set<ZSetOperations.TypedTuple<String>> tuples = new HashSet<>();
+            Map<String, String> summaries = new HashMap<>();
+            for (ArticleSummary summary : latest) {
+                String member = member(summary.getArticleId());
+                tuples.add(ZSetOperations.TypedTuple.of(member, score(summary)));
+                summaries.put(member, objectMapper.writeValueAsString(summary));
+            }
+            stringRedisTemplate.opsForZSet().add(tempFeedKey, tuples);
+            stringRedisTemplate.opsForHash().putAll(tempSummaryKey, summaries);
+        }
+
+        Long swapped = stringRedisTemplate.execute(SWAP_SCRIPT,
+                List.of(VERSION_KEY, tempFeedKey, tempSummaryKey, FEED_KEY, SUMMARY_KEY, READY_KEY),
+                version == null ? "0" : version,
+                latest.size() < cacheSize ? READY_COMPLETE : READY_PARTIAL,
+                latest.isEmpty() ? "1" : "0");
+        if (swapped == null || swapped == 0) {
+            return false;
+        }
+        stringRedisTemplate.delete(TOTAL_KEY);
+        log.info("文章列表头部缓存构建完成，共{}篇文章", latest.size());
+        return true;
+    }
+
+    /**
+     * 从缓存窗口读取一页已发布文章
+     * @param page 页码（从1开始）
+     * @param size 每页大小
+     * @param withTotal 是否返回总条数
+     * @return 分页结果；请求超出窗口、窗口未构建或数据不完整时返回 null，由调用方查询数据库
+     */
+    public IPage<ArticleSummary> getPage(int page, int size, boolean withTotal) {
+        if (page < 1 || size < 1) {
+            return null;
+        }
+        long start = (page - 1L) * size;
+        long end = start + size - 1;
+        if (end >= cacheSize) {
+            return null;
+        }
+
+        try {
+            if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(READY_KEY))) {
+                return null;
+            }
+
+            // 不足一页说明到了窗口末尾（窗口可能因删除而缩小），交给数据库处理
+            Set<String> members = stringRedisTemplate.opsForZSet().reverseRange(FEED_KEY, start, end);
+            if (members == null || members.size() < size) {
+                return null;
+            }
+
+            List<Object> values = stringRedisTemplate.opsForHash().multiGet(SUMMARY_KEY, new ArrayList<>(members));
+            List<ArticleSummary> records = new ArrayList<>(values.size());
+            for (Object value : values) {
+                if (value == null) {
+                    return null;
+                }
+                records.add(objectMapper.readValue(value.toString(), ArticleSummary.class));
+            }
+
+            Page<ArticleSummary> result = new Page<>(page, size, withTotal);
+            result.setRecords(records);
+            if (withTotal) {
+                result.setTotal(countPublished());
+            }
+            return result;
+        } catch (Exception e) {
+            log.warn("读取文章列表头部缓存失败，改为查询数据库: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 文章对外可见（审核通过/驳回）后加入窗口
+     * @param articleId 文章ID
+     */
+    public void articlePublished(Long articleId) {
+        stringRedisTemplate.delete(TOTAL_KEY);
+        upsert(articleId);
+    }
+
+    /**
+     * 文章内容变更后刷新窗口中的列表项（文章不在窗口中时不做任何事）
+     * @param articleId 文章ID
+     */
+    public void articleChanged(Long articleId) {
+        if (stringRedisTemplate.opsForZSet().score(FEED_KEY, member(articleId)) != null) {
+            upsert(articleId);
+        }
+    }
+
+    /**
+     * 文章删除后移出窗口
+     * @param articleIds 文章ID列表
+     */
+    public void articlesDeleted(Collection<Long> articleIds) {
+        stringRedisTemplate.delete(TOTAL_KEY);
+        if (articleIds.isEmpty()) {
+            return;
+        }
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(cacheSize));
+        articleIds.forEach(articleId -> args.add(member(articleId)));
+        Long result = stringRedisTemplate.execute(REMOVE_SCRIPT, List.of(FEED_KEY, SUMMARY_KEY, READY_KEY, VERSION_KEY),
+                args.toArray());
+        if (result != null && result == 3) {
+            rebuild();
+        }
+    }
+
+    private void upsert(Long articleId) {
+        ArticleSummary summary = articleRepository.selectSummaryById(articleId);
+        if (summary == null || "draft".equals(summary.getStatus())) {
+            articlesDeleted(List.of(articleId));
+            return;
+        }
+        Long result;
+        try {
+            result = stringRedisTemplate.execute(UPSERT_SCRIPT, List.of(FEED_KEY, SUMMARY_KEY, READY_KEY, VERSION_KEY),
+                    String.valueOf(score(summary)), member(articleId),
+                    objectMapper.writeValueAsString(summary), String.valueOf(cacheSize));
+        } catch (Exception e) {
+            // 更新失败时丢弃整个窗口，等待下次重建前全部请求走数据库
+            stringRedisTemplate.delete(READY_KEY);
+            log.error("更新文章列表头部缓存失败，已停用缓存窗口", e);
+            return;
+        }
+        if (result != null && result == 3) {
+            rebuild();
+        }
+    }
+
+    private long countPublished() {
+        String cached = stringRedisTemplate.opsForValue().get(TOTAL_KEY);
+        if (cached != null) {
+            return Long.parseLong(cached);
+        }
+        long total = articleRepository.selectCount(new QueryWrapper<Article>().ne("status", "draft"));
+        stringRedisTemplate.opsForValue().set(TOTAL_KEY, String.valueOf(total), totalTtlSeconds, TimeUnit.SECONDS);
+        return total;
+    }
+
+    // 成员补齐为定长数字串：分数相同时 Redis 按成员字典序排序，等价于按文章ID排序
+    private String member(Long articleId) {
+        return String.format("%019d", articleId);
+    }
+
+    private double score(ArticleSummary summary) {
+        return summary.getPublishTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,119 @@
+package com.my.blog.service.Impl;
+
+import com.my.blog.utils.JwtUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * 刷新令牌（会话）存储
+ * 每个用户的全部会话保存在一个 Redis 哈希 auth:session:{username} 中：字段为刷新令牌的短摘要（见 JwtUtils.tokenDigest），
+ * 值为过期时间戳；不保存令牌原文，每个会话只占一个几十字节的哈希字段
+ * 签发与轮换时顺带清理已过期的字段，并把整个哈希的过期时间设为最晚的会话过期时间，不需要定时清理任务
+ * 吊销用户的全部会话只需 UNLINK 这一个key；已签发的访问令牌通过用户纪元号失效（见 UserEpochService）
+ * key 中的 {username} 同时是 Redis Cluster 的 hash tag，脚本只访问这一个key
+ */
+@Service
+public class SessionTokenStore {
+
+    private static final String KEY_PREFIX = "auth:session:";
+
+    /**
+     * 删除已过期的会话，并把哈希的过期时间设为剩余会话中最晚的过期时间（ARGV[#ARGV] 为当前时间戳）
+     */
+    private static final String PRUNE =
+            "local now = tonumber(ARGV[#ARGV])\n" +
+            "local fields = redis.call('HGETALL', KEYS[1])\n" +
+            "local latest = 0\n" +
+            "for i = 1, #fields, 2 do\n" +
+            "  local expiresAt = tonumber(fields[i + 1])\n" +
+            "  if expiresAt <= now then\n" +
+            "    redis.call('HDEL', KEYS[1], fields[i])\n" +
+            "  elseif expiresAt > latest then\n" +
+            "    latest = expiresAt\n" +
+            "  end\n" +
+            "end\n" +
+            "if latest > 0 then redis.call('PEXPIREAT', KEYS[1], latest) end\n";
+
+    /**
+     * 登记新会话
+     * KEYS: 会话哈希；ARGV: 令牌摘要, 过期时间戳, 当前时间戳
+     */
+    private static final RedisScript<Long> ISSUE_SCRIPT = RedisScript.of(
+            "redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])\n" +
+            PRUNE +
+            "return 1", Long.class);
+
+    /**
+     * 轮换会话（比较并交换），同一令牌的并发轮换只有一个成功
+     * KEYS: 会话哈希；ARGV: 旧令牌摘要, 新令牌摘要, 新令牌过期时间戳, 当前时间戳
+     * 返回 1 轮换成功，0 用户没有任何会话（已吊销），-1 旧令牌不在会话中（已被轮换或单独失效）
+     */
+    private static final RedisScript<Long> ROTATE_SCRIPT = RedisScript.of(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end\n" +
+            "if redis.call('HDEL', KEYS[1], ARGV[1]) == 0 then return -1 end\n" +
+            "redis.call('HSET', KEYS[1], ARGV[2], ARGV[3])\n" +
+            PRUNE +
+            "return 1", Long.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    /**
+     * 登记登录时签发的刷新令牌
+     * @param username 用户名
+     * @param refreshToken 刷新令牌
+     * @param expiresAt 令牌过期时间戳（毫秒）
+     */
+    public void issue(String username, String refreshToken, long expiresAt) {
+        stringRedisTemplate.execute(ISSUE_SCRIPT, List.of(key(username)),
+                jwtUtils.tokenDigest(refreshToken), String.valueOf(expiresAt),
+                String.valueOf(System.currentTimeMillis()));
+    }
+
+    /**
+     * 用新刷新令牌替换旧刷新令牌（一次往返，原子执行）
+     * @param username 用户名
+     * @param oldToken 客户端提交的刷新令牌
+     * @param newToken 新签发的刷新令牌
+     * @param expiresAt 新令牌过期时间戳（毫秒）
+     * @return 1 成功，0 会话已全部吊销，-1 旧令牌已失效
+     */
+    public long rotate(String username, String oldToken, String newToken, long expiresAt) {
+        Long result = stringRedisTemplate.execute(ROTATE_SCRIPT, List.of(key(username)),
+                jwtUtils.tokenDigest(oldToken), jwtUtils.tokenDigest(newToken), String.valueOf(expiresAt),
+                String.valueOf(System.currentTimeMillis()));
+        return result == null ? 0 : result;
+    }
+
+    /**
+     * 吊销用户的全部会话（UNLINK 单个key，在后台释放内存），事务提交后执行
+     * 事务回滚时会话保持不变，与用户纪元号的吊销时机一致
+     * @param username 用户名
+     */
+    public void revokeAll(String username) {
+        Runnable action = () -> stringRedisTemplate.unlink(key(username));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private String key(String username) {
+        return KEY_PREFIX + "{" + username + "}";
+    }
+}
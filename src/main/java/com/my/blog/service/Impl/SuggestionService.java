@@ -0,0 +1,153 @@
+package com.my.blog.service.Impl;
+
+import com.my.blog.dto.response.ArticleSummary;
+import com.my.blog.dto.response.Suggestion;
+import com.my.blog.event.ArticleChangedEvent;
+import com.my.blog.repository.ArticleRepository;
+import com.my.blog.repository.ArticleTagRepository;
+import com.my.blog.search.PrefixIndex;
+import com.my.blog.utils.CacheVersion;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 搜索框输入提示（已发布文章标题 + 标签名，前缀匹配）
+ * 提示项保存在内存中：文章按浏览量、标签按使用次数排序
+ * 查询只读取一个不可变的 PrefixIndex 快照，不加锁也不访问 Redis/数据库
+ * 写操作只增量修改提示项集合并标记为脏，由定时任务在短延迟后重建快照（多次写操作合并为一次重建）：
+ * 文章通过 ArticleChangedEvent 更新（含其他节点的写操作），标签通过标签命名空间版本号发现变更，
+ * 浏览量等缓慢变化的权重由定期全量重新加载校正
+ */
+@Slf4j
+@Service
+public class SuggestionService implements ApplicationRunner {
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private ArticleTagRepository articleTagRepository;
+
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+
+    @Value("${search.suggest.top-k:10}")
+    private int topK;  // 单次最多返回的提示条数
+
+    private final Map<Long, Suggestion> articles = new ConcurrentHashMap<>();
+
+    private volatile List<Suggestion> tags = List.of();
+
+    private volatile CacheVersion tagVersion;
+
+    private volatile PrefixIndex index = PrefixIndex.empty();
+
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    @Override
+    public void run(ApplicationArguments args) {
+        reload();
+    }
+
+    /**
+     * 查询输入提示
+     * @param prefix 用户已输入的前缀
+     * @param limit 最多返回的条数
+     * @return 按权重降序排列的提示项
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return index.suggest(prefix, Math.min(limit, topK));
+    }
+
+    /**
+     * 全量重新加载提示项（启动时与定期执行，用于校正浏览量、使用次数）
+     */
+    @Scheduled(fixedDelayString = "${search.suggest.reload-interval-millis:600000}",
+            initialDelayString = "${search.suggest.reload-interval-millis:600000}")
+    public void reload() {
+        try {
+            List<Suggestion> titles = articleRepository.selectTitleSuggestions();
+            articles.clear();
+            titles.forEach(suggestion -> articles.put(suggestion.getId(), suggestion));
+            reloadTags();
+            rebuild();
+            log.info("输入提示索引加载完成，共{}项", index.size());
+        } catch (Exception e) {
+            log.error("输入提示索引加载失败，将在下次定时任务时重试", e);
+        }
+    }
+
+    /**
+     * 文章变更后更新其标题与浏览量（草稿或已删除的文章移出提示）
+     */
+    @EventListener
+    public void onArticleChanged(ArticleChangedEvent event) {
+        try {
+            ArticleSummary summary = articleRepository.selectSummaryById(event.getArticleId());
+            if (summary == null || "draft".equals(summary.getStatus())) {
+                articles.remove(event.getArticleId());
+            } else {
+                articles.put(summary.getArticleId(), Suggestion.builder()
+                        .text(summary.getTitle())
+                        .type(Suggestion.TYPE_ARTICLE)
+                        .id(summary.getArticleId())
+                        .weight(summary.getViewCount() == null ? 0 : summary.getViewCount())
+                        .build());
+            }
+            dirty.set(true);
+        } catch (Exception e) {
+            log.warn("更新文章输入提示失败 articleId={}: {}", event.getArticleId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 检查标签版本号并重建有变更的快照
+     */
+    @Scheduled(fixedDelayString = "${search.suggest.refresh-millis:1000}")
+    public void refresh() {
+        try {
+            CacheVersion current = cacheInvalidationService.tagVersion();
+            if (!current.equals(tagVersion)) {
+                reloadTags();
+            }
+        } catch (Exception e) {
+            log.debug("检查标签版本号失败: {}", e.getMessage());
+        }
+        if (dirty.get()) {
+            rebuild();
+        }
+    }
+
+    // 先读版本号再查询：查询期间发生的变更会让版本号再次变化，下一轮重新加载
+    private void reloadTags() {
+        CacheVersion version = null;
+        try {
+            version = cacheInvalidationService.tagVersion();
+        } catch (Exception e) {
+            log.debug("读取标签版本号失败: {}", e.getMessage());
+        }
+        tags = articleTagRepository.selectTagSuggestions();
+        tagVersion = version;
+        dirty.set(true);
+    }
+
+    private void rebuild() {
+        dirty.set(false);
+        List<Suggestion> all = new ArrayList<>(articles.size() + tags.size());
+        all.addAll(articles.values());
+        all.addAll(tags);
+        index = PrefixIndex.build(all, topK);
+    }
+}
@@ -0,0 +1,373 @@
+package com.my.blog.service.Impl;
+
+import com.my.blog.entity.ArticleCategory;
+import com.my.blog.entity.ArticleTag;
+import com.my.blog.event.TaxonomyChangedEvent;
+import com.my.blog.repository.ArticleCategoryRepository;
+import com.my.blog.repository.ArticleTagRepository;
+import com.my.blog.utils.CacheVersion;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * 标签/分类字典（进程内，写时复制）
+ * 两张表很小且极少变化，全部数据以不可变快照的形式常驻内存：ID <-> 名称，以及分类的父子关系
+ * 变更时重新加载整张表并原子替换快照引用，读取方不加锁，也不会看到加载到一半的数据
+ *
+ * 同步方式：本节点提交标签/分类写操作后收到 TaxonomyChangedEvent 立即重新加载；
+ * 其他节点的写操作通过定时比对 Redis 中的命名空间版本号发现（见 CacheInvalidationService）
+ * 查询未命中时回退到数据库确认（字典可能尚未同步到其他节点刚创建的数据），确认存在则标记为需要重新加载
+ * 快照返回的实体为共享对象，调用方不要修改
+ * 标签名按 tagNameKey 匹配（忽略大小写与重音），与 uk_tag_name 所用的 utf8mb4 默认排序规则一致
+ */
+@Slf4j
+@Service
+public class TaxonomyDictionary implements ApplicationRunner {
+
+    @Autowired
+    private ArticleTagRepository articleTagRepository;
+
+    @Autowired
+    private ArticleCategoryRepository articleCategoryRepository;
+
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private volatile TagSnapshot tags;
+
+    private volatile CategorySnapshot categories;
+
+    private volatile boolean tagsStale;
+
+    private volatile boolean categoriesStale;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        reloadTags();
+        reloadCategories();
+    }
+
+    /**
+     * 本节点提交变更后立即重新加载
+     */
+    @EventListener
+    public void onTaxonomyChanged(TaxonomyChangedEvent event) {
+        if (event.getKind() == TaxonomyChangedEvent.Kind.TAG) {
+            reloadTags();
+        } else {
+            reloadCategories();
+        }
+    }
+
+    /**
+     * 比对 Redis 版本号，发现其他节点的变更（或加载失败、查询未命中后）重新加载
+     */
+    @Scheduled(fixedDelayString = "${taxonomy.refresh-millis:1000}")
+    public void refresh() {
+        TagSnapshot currentTags = tags;
+        if (tagsStale || currentTags == null || isOutdated(currentTags.version, cacheInvalidationService::tagVersion)) {
+            reloadTags();
+        }
+        CategorySnapshot currentCategories = categories;
+        if (categoriesStale || currentCategories == null
+                || isOutdated(currentCategories.version, cacheInvalidationService::categoryVersion)) {
+            reloadCategories();
+        }
+    }
+
+    /**
+     * 根据ID查询标签
+     * @param tagId 标签ID
+     * @return 标签，不存在时返回 null
+     */
+    public ArticleTag findTag(Long tagId) {
+        TagSnapshot snapshot = tags;
+        ArticleTag tag = snapshot == null ? null : snapshot.byId.get(tagId);
+        if (tag != null) {
+            return tag;
+        }
+        tag = articleTagRepository.selectById(tagId);
+        markTagsStaleIf(tag != null && snapshot != null);
+        return tag;
+    }
+
+    /**
+     * 根据名称查询标签
+     * @param tagName 标签名
+     * @return 标签，不存在时返回 null
+     */
+    public ArticleTag findTagByName(String tagName) {
+        TagSnapshot snapshot = tags;
+        ArticleTag tag = snapshot == null || tagName == null ? null : snapshot.byName.get(tagNameKey(tagName));
+        if (tag != null) {
+            return tag;
+        }
+        tag = articleTagRepository.selectByName(tagName);
+        markTagsStaleIf(tag != null && snapshot != null);
+        return tag;
+    }
+
+    /**
+     * 根据ID批量查询标签，字典中没有的ID用一次 IN 查询到数据库确认
+     * @param tagIds 标签ID
+     * @return 标签ID -> 标签（只包含存在的标签）
+     */
+    public Map<Long, ArticleTag> findTags(Collection<Long> tagIds) {
+        TagSnapshot snapshot = tags;
+        Map<Long, ArticleTag> found = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long tagId : new LinkedHashSet<>(tagIds)) {
+            ArticleTag tag = snapshot == null ? null : snapshot.byId.get(tagId);
+            if (tag != null) {
+                found.put(tagId, tag);
+            } else if (tagId != null) {
+                misses.add(tagId);
+            }
+        }
+        if (!misses.isEmpty()) {
+            List<ArticleTag> loaded = articleTagRepository.selectBatchIds(misses);
+            loaded.forEach(tag -> found.put(tag.getTagId(), tag));
+            markTagsStaleIf(!loaded.isEmpty() && snapshot != null);
+        }
+        return found;
+    }
+
+    /**
+     * 根据名称批量查询标签，字典中没有的名称用一次 IN 查询到数据库确认
+     * @param tagNames 标签名
+     * @return 传入的标签名 -> 标签（只包含存在的标签；只有大小写或重音不同的名称解析到同一个标签）
+     */
+    public Map<String, ArticleTag> findTagsByNames(Collection<String> tagNames) {
+        TagSnapshot snapshot = tags;
+        Map<String, ArticleTag> found = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String tagName : new LinkedHashSet<>(tagNames)) {
+            if (tagName == null) {
+                continue;
+            }
+            ArticleTag tag = snapshot == null ? null : snapshot.byName.get(tagNameKey(tagName));
+            if (tag != null) {
+                found.put(tagName, tag);
+            } else {
+                misses.add(tagName);
+            }
+        }
+        if (!misses.isEmpty()) {
+            // 数据库按排序规则匹配，返回的是库中的原始名称，需按比较键对应回传入的名称
+            List<ArticleTag> loaded = articleTagRepository.selectByNames(misses);
+            Map<String, ArticleTag> loadedByKey = new HashMap<>();
+            loaded.forEach(tag -> loadedByKey.put(tagNameKey(tag.getTagName()), tag));
+            for (String tagName : misses) {
+                ArticleTag tag = loadedByKey.get(tagNameKey(tagName));
+                if (tag != null) {
+                    found.put(tagName, tag);
+                }
+            }
+            markTagsStaleIf(!loaded.isEmpty() && snapshot != null);
+        }
+        return found;
+    }
+
+    /**
+     * 标签名的比较键：去掉重音符号后转小写，与 utf8mb4 默认排序规则（*_ai_ci）下的相等判断一致
+     * @param tagName 标签名
+     * @return 比较键
+     */
+    public static String tagNameKey(String tagName) {
+        String decomposed = Normalizer.normalize(tagName, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 全部标签
+     * @return 标签列表（新列表，可以修改列表本身）
+     */
+    public List<ArticleTag> allTags() {
+        TagSnapshot snapshot = tags;
+        return snapshot == null ? articleTagRepository.selectList(null) : new ArrayList<>(snapshot.byId.values());
+    }
+
+    /**
+     * 根据名称查询分类
+     * @param categoryName 分类名
+     * @return 分类，不存在时返回 null
+     */
+    public ArticleCategory findCategoryByName(String categoryName) {
+        CategorySnapshot snapshot = categories;
+        ArticleCategory category = snapshot == null ? null : snapshot.byName.get(categoryName);
+        if (category != null) {
+            return category;
+        }
+        category = articleCategoryRepository.findByName(categoryName);
+        if (category != null && snapshot != null) {
+            categoriesStale = true;
+        }
+        return category;
+    }
+
+    /**
+     * 全部分类
+     * @return 分类列表（新列表，可以修改列表本身）
+     */
+    public List<ArticleCategory> allCategories() {
+        CategorySnapshot snapshot = categories;
+        return snapshot == null ? articleCategoryRepository.selectList(null) : new ArrayList<>(snapshot.byId.values());
+    }
+
+    /**
+     * 直接子分类
+     * @param categoryId 分类ID，传 null 返回顶级分类
+     * @return 子分类列表
+     */
+    public List<ArticleCategory> childrenOf(Long categoryId) {
+        CategorySnapshot snapshot = categories;
+        if (snapshot == null) {
+            return articleCategoryRepository.selectList(null).stream()
+                    .filter(category -> Objects.equals(category.getParentCategoryIdValue(), categoryId))
+                    .toList();
+        }
+        return snapshot.children.getOrDefault(categoryId, List.of());
+    }
+
+    /**
+     * 分类及其全部后代分类的名称（文章表按分类名存储分类）
+     * @param categoryName 分类名
+     * @return 名称集合，分类不存在时为空
+     */
+    public Set<String> subtreeNames(String categoryName) {
+        Set<String> names = new LinkedHashSet<>();
+        ArticleCategory root = findCategoryByName(categoryName);
+        if (root == null) {
+            return names;
+        }
+        List<ArticleCategory> pending = new ArrayList<>(List.of(root));
+        while (!pending.isEmpty()) {
+            ArticleCategory category = pending.remove(pending.size() - 1);
+            if (names.add(category.getCategoryName())) {  // 防止脏数据形成环
+                pending.addAll(childrenOf(category.getCategoryId()));
+            }
+        }
+        return names;
+    }
+
+    // 先读版本号再查询：查询期间发生的变更会让版本号再次变化，下一轮重新加载
+    private void reloadTags() {
+        try {
+            CacheVersion version = readVersion(cacheInvalidationService::tagVersion);
+            tagsStale = false;
+            tags = new TagSnapshot(articleTagRepository.selectList(null), version);
+        } catch (Exception e) {
+            tagsStale = true;
+            log.warn("加载标签字典失败，查询将回退到数据库: {}", e.getMessage());
+        }
+    }
+
+    private void reloadCategories() {
+        try {
+            CacheVersion version = readVersion(cacheInvalidationService::categoryVersion);
+            categoriesStale = false;
+            categories = new CategorySnapshot(articleCategoryRepository.selectList(null), version);
+        } catch (Exception e) {
+            categoriesStale = true;
+            log.warn("加载分类字典失败，查询将回退到数据库: {}", e.getMessage());
+        }
+    }
+
+    private void markTagsStaleIf(boolean condition) {
+        if (condition) {
+            tagsStale = true;
+        }
+    }
+
+    private CacheVersion readVersion(Supplier<CacheVersion> reader) {
+        try {
+            return reader.get();
+        } catch (Exception e) {
+            log.debug("读取命名空间版本号失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    // Redis 不可用时无法判断，保留当前快照（本节点的写操作仍通过事件刷新）
+    private boolean isOutdated(CacheVersion loaded, Supplier<CacheVersion> reader) {
+        CacheVersion current = readVersion(reader);
+        return current != null && !current.equals(loaded);
+    }
+
+    /**
+     * 标签快照（不可变）
+     */
+    private static final class TagSnapshot {
+
+        private final Map<Long, ArticleTag> byId;
+
+        private final Map<String, ArticleTag> byName;
+
+        private final CacheVersion version;
+
+        private TagSnapshot(List<ArticleTag> tags, CacheVersion version) {
+            Map<Long, ArticleTag> ids = new HashMap<>();
+            Map<String, ArticleTag> names = new HashMap<>();
+            for (ArticleTag tag : tags) {
+                ids.put(tag.getTagId(), tag);
+                names.put(tagNameKey(tag.getTagName()), tag);
+            }
+            this.byId = Map.copyOf(ids);
+            this.byName = Map.copyOf(names);
+            this.version = version;
+        }
+    }
+
+    /**
+     * 分类快照（不可变），children 的 key 为父分类ID，顶级分类的 key 为 null
+     */
+    private static final class CategorySnapshot {
+
+        private final Map<Long, ArticleCategory> byId;
+
+        private final Map<String, ArticleCategory> byName;
+
+        private final Map<Long, List<ArticleCategory>> children;
+
+        private final CacheVersion version;
+
+        private CategorySnapshot(List<ArticleCategory> categories, CacheVersion version) {
+            Map<Long, ArticleCategory> ids = new HashMap<>();
+            Map<String, ArticleCategory> names = new HashMap<>();
+            Map<Long, List<ArticleCategory>> tree = new HashMap<>();
+            for (ArticleCategory category : categories) {
+                ids.put(category.getCategoryId(), category);
+                names.put(category.getCategoryName(), category);
+                tree.computeIfAbsent(category.getParentCategoryIdValue(), key -> new ArrayList<>()).add(category);
+            }
+            this.byId = Map.copyOf(ids);
+            this.byName = Map.copyOf(names);
+            // Map.copyOf 不允许 null key，顶级分类单独用 HashMap 包装为只读视图
+            Map<Long, List<ArticleCategory>> frozen = new HashMap<>();
+            tree.forEach((parentId, list) -> frozen.put(parentId, List.copyOf(list)));
+            this.children = Collections.unmodifiableMap(frozen);
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.my.blog.service.Impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.my.blog.dto.response.UserCacheStats;
+import com.my.blog.entity.User;
+import com.my.blog.repository.UserRepository;
+import com.my.blog.utils.CachePolicy;
+import com.my.blog.utils.RedisUtils;
+import com.my.blog.utils.SingleFlight;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 用户两级缓存（CustomUserDetailsService 与 UserService.selectByUsername 共用）
+ * L1：进程内 Caffeine 缓存，短TTL
+ * L2：Redis 缓存 user:v{version}:{username}，经 CachePolicy 写入（TTL抖动 + XFetch 提前刷新），版本号保存在 user:ver:{username}
+ *
+ * 用户状态、角色、密码变更后调用 userChanged：事务提交后版本号加一、清除本地 L1，
+ * 并通过 Redis Pub/Sub 通知其他节点清除各自的 L1；广播丢失时 L1 在TTL到期后自行失效
+ * 加载者在查询数据库之前读取版本号并写到该版本的key下（与 ArticleCacheService 相同），
+ * 与变更并发的慢加载（包括其他节点上的加载）即使写回了旧数据，也只会落在已废弃的版本上
+ * Redis 不可用时直接查询数据库
+ * 分别统计 L1 命中、L2 命中与数据库加载次数（见 stats），用于评估缓存减少的数据库查询
+ */
+@Slf4j
+@Service
+public class UserCacheService implements MessageListener {
+
+    /**
+     * 用户缓存失效广播频道
+     */
+    public static final String INVALIDATION_CHANNEL = "cache:invalidate:user";
+
+    private static final String KEY_PREFIX = "user:";
+
+    private static final String VERSION_KEY_PREFIX = "user:ver:";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RedisUtils redisUtils;
+
+    @Autowired
+    private CachePolicy cachePolicy;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Value("${cache.user.ttl-minutes:60}")
+    private long ttlMinutes;  // Redis 条目基础存活时间（分钟）
+
+    @Value("${cache.user.local-max-size:10000}")
+    private long localMaxSize;  // L1 最大条目数
+
+    @Value("${cache.user.local-ttl-seconds:60}")
+    private long localTtlSeconds;  // L1 条目写入后的存活时间（秒）
+
+    private Cache<String, User> localCache;
+
+    /**
+     * 本节点处理过的失效次数，加载前后不一致说明加载期间发生了失效，结果不写入 L1
+     */
+    private final AtomicLong evictions = new AtomicLong();
+
+    private final LongAdder localHits = new LongAdder();
+
+    private final LongAdder redisHits = new LongAdder();
+
+    private final LongAdder databaseLoads = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        localCache = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtlSeconds, TimeUnit.SECONDS)
+                .build();
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    /**
+     * 按用户名查询用户：L1 -> Redis -> 数据库
+     * @param username 用户名
+     * @return 用户，不存在时返回 null（不缓存）
+     */
+    public User get(String username) {
+        User user = localCache.getIfPresent(username);
+        if (user != null) {
+            localHits.increment();
+            return user;
+        }
+
+        long evictionsBefore = evictions.get();
+        try {
+            long version = currentVersion(username);
+            String redisKey = entryKey(username, version);
+            // 使用CachePolicy获取缓存（临近过期时后台按最新版本号提前刷新）
+            user = cachePolicy.get(redisKey,
+                    cachedData -> convertCachedUser(redisKey, cachedData),
+                    () -> loadUser(username, currentVersion(username)));
+            if (user != null) {
+                redisHits.increment();
+            } else {
+                user = loadUser(username, version);
+            }
+        } catch (Exception e) {
+            log.debug("读取用户缓存失败，直接查询数据库: {}", e.getMessage());
+            databaseLoads.increment();
+            user = userRepository.queryByUsername(username);
+        }
+
+        if (user != null && evictions.get() == evictionsBefore) {
+            localCache.put(username, user);
+        }
+        return user;
+    }
+
+    /**
+     * 用户状态、角色或密码发生变更，事务提交后失效全部节点的缓存
+     * @param username 用户名
+     */
+    public void userChanged(String username) {
+        Runnable action = () -> {
+            evictLocal(username);
+            try {
+                long version = redisUtils.increment(VERSION_KEY_PREFIX + username);
+                // 旧版本的条目已不会再被读取，顺手删除以释放内存
+                redisUtils.delete(entryKey(username, version - 1));
+                redisUtils.publish(INVALIDATION_CHANNEL, redisUtils.getNodeId() + ":" + username);
+            } catch (Exception e) {
+                log.warn("用户缓存失效失败 username={}，其他节点的本地缓存将在TTL到期后失效: {}", username, e.getMessage());
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * 缓存命中统计（自启动以来）
+     * @return L1/L2 命中次数、数据库加载次数与命中率
+     */
+    public UserCacheStats stats() {
+        long local = localHits.sum();
+        long redis = redisHits.sum();
+        long database = databaseLoads.sum();
+        long total = local + redis + database;
+        double hitRate = total == 0 ? 0.0 : (double) (local + redis) / total;
+        return new UserCacheStats(local, redis, database, localCache.estimatedSize(), hitRate);
+    }
+
+    /**
+     * 接收其他节点发布的失效消息（格式：节点ID:用户名）
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Object body = redisUtils.deserializeMessage(message.getBody());
+        if (body == null) {
+            return;
+        }
+
+        // 用户名可能包含冒号，节点ID不包含，按第一个冒号拆分
+        String payload = body.toString();
+        int separator = payload.indexOf(':');
+        if (separator < 0) {
+            return;
+        }
+
+        // 本节点发出的消息在 userChanged 时已经处理过
+        if (payload.substring(0, separator).equals(redisUtils.getNodeId())) {
+            return;
+        }
+        evictLocal(payload.substring(separator + 1));
+    }
+
+    private void evictLocal(String username) {
+        evictions.incrementAndGet();
+        localCache.invalidate(username);
+    }
+
+    private long currentVersion(String username) {
+        Object version = redisUtils.get(VERSION_KEY_PREFIX + username);
+        if (version == null) {
+            return 0;
+        }
+        return version instanceof Number ? ((Number) version).longValue() : Long.parseLong(version.toString());
+    }
+
+    private String entryKey(String username, long version) {
+        // 版本号放在用户名之前：用户名可以包含冒号，这样不同用户、不同版本的key不会相同，也不会与 user:ver: 冲突
+        return KEY_PREFIX + "v" + version + ":" + username;
+    }
+
+    // 从数据库加载用户并回填该版本的缓存（同一版本的并发加载只执行一次）
+    // version 必须在查询数据库之前读取
+    private User loadUser(String username, long version) {
+        String redisKey = entryKey(username, version);
+        return singleFlight.execute(redisKey, () -> cachePolicy.load(redisKey, () -> {
+            databaseLoads.increment();
+            return userRepository.queryByUsername(username);
+        }, ttlMinutes, TimeUnit.MINUTES));
+    }
+
+    // 处理缓存数据类型转换
+    @SuppressWarnings("unchecked")
+    private User convertCachedUser(String redisKey, Object cachedData) {
+        if (cachedData instanceof User) {
+            // 如果缓存中的对象已经是User类型
+            return (User) cachedData;
+        } else if (cachedData instanceof Map) {
+            // 如果缓存中的对象是Map类型（如LinkedHashMap）
+            try {
+                Map<String, Object> userMap = (Map<String, Object>) cachedData;
+                return convertMapToUser(userMap);
+            } catch (Exception e) {
+                // 转换失败，记录日志并从数据库重新获取
+                log.warn("从缓存转换User对象失败: {}", e.getMessage());
+                // 删除有问题的缓存
+                redisUtils.delete(redisKey);
+            }
+        }
+        return null;
+    }
+
+    // 辅助方法：将Map转换为User对象
+    private User convertMapToUser(Map<String, Object> userMap) {
+        User user = new User();
+
+        // 设置基本属性
+        if (userMap.containsKey("id")) {
+            user.setId(Long.valueOf(userMap.get("id").toString()));
+        }
+        if (userMap.containsKey("username")) {
+            user.setUsername((String) userMap.get("username"));
+        }
+        if (userMap.containsKey("password")) {
+            user.setPassword((String) userMap.get("password"));
+        }
+        if (userMap.containsKey("email")) {
+            user.setEmail((String) userMap.get("email"));
+        }
+        if (userMap.containsKey("role")) {
+            user.setRole((String) userMap.get("role"));
+        }
+        if (userMap.containsKey("enabled")) {
+            user.setEnabled((Boolean) userMap.get("enabled"));
+        }
+
+        // 处理日期类型
+        if (userMap.containsKey("updatedAt")) {
+            Object dateObj = userMap.get("updatedAt");
+            if (dateObj instanceof Date) {
+                user.setUpdatedAt((Date) dateObj);
+            } else if (dateObj instanceof Long) {
+                user.setUpdatedAt(new Date((Long) dateObj));
+            } else if (dateObj instanceof String) {
+                // 可以添加字符串日期解析逻辑
+            }
+        }
+
+        if (userMap.containsKey("createdAt")) {
+            Object dateObj = userMap.get("createdAt");
+            if (dateObj instanceof Date) {
+                user.setCreatedAt((Date) dateObj);
+            } else if (dateObj instanceof Long) {
+                user.setCreatedAt(new Date((Long) dateObj));
+            } else if (dateObj instanceof String) {
+                // 可以添加字符串日期解析逻辑
+            }
+        }
+
+        return user;
+    }
+}
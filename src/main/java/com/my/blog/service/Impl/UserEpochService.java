@@ -0,0 +1,156 @@
+package com.my.blog.service.Impl;
+
+import com.my.blog.utils.RedisUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 用户纪元表（进程内，写时复制），用于无状态认证时的令牌吊销
+ * 每个用户有一个纪元号，签发令牌时写入 ep 声明；禁用/注销账号、修改角色、修改密码后纪元号加一，
+ * 声明中的纪元号小于当前纪元号的令牌一律视为已吊销，认证过滤器不再需要按请求查询用户表
+ * 只有纪元号发生过变化的用户才会出现在表中（其余用户纪元号为 0），表的大小与被吊销过的用户数成正比
+ *
+ * 纪元号保存在 Redis 哈希中，本节点的变更在事务提交后立即写入本地表；
+ * 其他节点的变更通过定时比对 Redis 中的表版本号发现，版本号变化时才重新读取整张表
+ * Redis 不可用时保留当前的表，本节点的吊销仍在本地生效
+ */
+@Slf4j
+@Service
+public class UserEpochService implements ApplicationRunner {
+
+    /**
+     * 用户名 -> 纪元号
+     */
+    public static final String EPOCH_KEY = "auth:user-epoch";
+
+    /**
+     * 纪元表版本号（任何用户纪元号变化后加一）
+     */
+    public static final String VERSION_KEY = "auth:user-epoch:version";
+
+    @Autowired
+    private RedisUtils redisUtils;
+
+    private volatile Map<String, Long> epochs = Map.of();
+
+    private volatile Object loadedVersion;
+
+    private volatile boolean stale = true;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        refresh();
+    }
+
+    /**
+     * 比对 Redis 中的表版本号，发现其他节点的变更（或上次加载失败）后重新读取整张表
+     */
+    @Scheduled(fixedDelayString = "${auth.epoch.refresh-millis:1000}")
+    public void refresh() {
+        try {
+            Object version = redisUtils.get(VERSION_KEY);
+            if (!stale && Objects.equals(version, loadedVersion)) {
+                return;
+            }
+            Map<String, Long> loaded = new HashMap<>();
+            redisUtils.hashGetAll(EPOCH_KEY).forEach((field, value) -> loaded.put(field.toString(), toLong(value)));
+            replace(loaded);
+            loadedVersion = version;
+            stale = false;
+        } catch (Exception e) {
+            stale = true;
+            log.debug("同步用户纪元表失败，保留当前数据: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 本地表中的纪元号（认证过滤器使用，不访问 Redis）
+     * @param username 用户名
+     * @return 纪元号，从未变化过时为 0
+     */
+    public long currentEpoch(String username) {
+        return epochs.getOrDefault(username, 0L);
+    }
+
+    /**
+     * 签发令牌时使用的纪元号：优先读 Redis，避免本地表尚未同步时签发出随即失效的令牌
+     * @param username 用户名
+     * @return 纪元号
+     */
+    public long epochForIssue(String username) {
+        try {
+            Object value = redisUtils.hashGet(EPOCH_KEY, username);
+            return Math.max(value == null ? 0L : toLong(value), currentEpoch(username));
+        } catch (Exception e) {
+            return currentEpoch(username);
+        }
+    }
+
+    /**
+     * 判断令牌是否已被吊销
+     * @param username 令牌主题
+     * @param tokenEpoch 令牌中的纪元号
+     * @return 令牌纪元号小于当前纪元号时返回 true
+     */
+    public boolean isRevoked(String username, long tokenEpoch) {
+        return tokenEpoch < currentEpoch(username);
+    }
+
+    /**
+     * 吊销用户此前签发的全部令牌（纪元号加一），事务提交后执行
+     * @param username 用户名
+     */
+    public void revokeAll(String username) {
+        Runnable action = () -> {
+            long epoch;
+            try {
+                epoch = redisUtils.hashIncrement(EPOCH_KEY, username, 1);
+                redisUtils.increment(VERSION_KEY);
+            } catch (Exception e) {
+                epoch = currentEpoch(username) + 1;
+                log.warn("写入用户纪元号失败，吊销仅在本节点生效 username={}: {}", username, e.getMessage());
+            }
+            apply(username, epoch);
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // 写时复制：写操作很少，读取方始终看到完整的表
+    private synchronized void apply(String username, long epoch) {
+        if (epoch <= currentEpoch(username)) {
+            return;
+        }
+        Map<String, Long> updated = new HashMap<>(epochs);
+        updated.put(username, epoch);
+        epochs = Map.copyOf(updated);
+    }
+
+    // 纪元号只增不减：保留本地更大的值（如 Redis 写入失败时只在本地生效的吊销）
+    private synchronized void replace(Map<String, Long> loaded) {
+        epochs.forEach((username, epoch) -> loaded.merge(username, epoch, Math::max));
+        epochs = Map.copyOf(loaded);
+    }
+
+    private long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : Long.parseLong(value.toString());
+    }
+}
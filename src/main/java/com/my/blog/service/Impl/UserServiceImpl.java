@@ -3,6 +3,7 @@ package com.my.blog.service.Impl;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.my.blog.dto.request.UpdatePasswordDTO;
+import com.my.blog.dto.response.CursorPage;
 import com.my.blog.dto.response.TokenPair;
 import com.my.blog.utils.RedisUtils;
 import com.my.blog.dto.request.LoginDTO;
@@ -13,16 +14,14 @@ import com.my.blog.exception.ErrorCode;
 import com.my.blog.repository.UserRepository;
 import com.my.blog.service.UserService;
 import com.my.blog.utils.JwtUtils;
+import com.my.blog.utils.PageCursor;
 import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.Date;
 
@@ -40,6 +39,12 @@ public class UserServiceImpl implements UserService {
 
     private final RedisUtils redisUtils; // 使用RedisUtils
 
+    private final UserCacheService userCacheService; // 用户两级缓存（本地 + Redis）
+
+    private final UserEpochService userEpochService; // 用户纪元号，吊销已签发的令牌
+
+    private final SessionTokenStore sessionTokenStore; // 刷新令牌（会话）存储
+
 
     @Override
     public User register(RegisterDTO registerDTO) {
@@ -93,36 +98,22 @@ public class UserServiceImpl implements UserService {
             throw new CustomException(ErrorCode.INCORRECT_PASSWORD);
         }
 
+        // 已禁用/注销的账号不能登录（无状态认证不再按请求检查用户状态，必须在签发时拦截）
+        if (!user.isEnabled()) {
+            throw new CustomException(ErrorCode.ACCOUNT_DEACTIVATED);
+        }
+
         //更新用户最后登录时间
         userRepository.updateLastLoginTime(user.getUsername());
 
         // 3. 生成双令牌，两者的差异是签发的令牌类型不同
-        String accessToken = jwtUtils.generateToken(user.getUsername(), user.getRole());
-        String refreshToken = jwtUtils.generateRefreshToken(user.getUsername(), user.getRole());
-
-        // 4. 存储refreshToken到Redis（使用用户名作为Key）
-        redisUtils.set(
-                user.getUsername(), //用户的用户名作为键(key)
-                refreshToken,       //用户的刷新令牌作为值(value)
-                jwtUtils.getRefreshExpiration() / 1000,     //时间
-                TimeUnit.SECONDS    //时间单位
-        );
-
-        // 5. 计算令牌过期时间戳（用作有序集合的分数）
-        //当前时间戳 + 访问令牌的有效时长
-        long accessExpireTime = System.currentTimeMillis() + jwtUtils.getExpiration();
-        long refreshExpireTime = System.currentTimeMillis() + jwtUtils.getRefreshExpiration();
-
-        // 6. 存储令牌到有序集合中，使用过期时间作为分数,
-        //把 xxx_xxx_tokens:username 作为键(key):, 把 token本身 作为值(value), 加上有效时间，存进了redis的有序集合中
-        //addToZSet：用于按用户维度管理令牌集合**，支持批量操作和过期清理
-        redisUtils.addToZSet("user_access_tokens:" + user.getUsername(), accessToken, accessExpireTime);
-        redisUtils.addToZSet("user_refresh_tokens:" + user.getUsername(), refreshToken, refreshExpireTime);
-
-        // 7. 存储令牌详情，作用是按令牌快速验证和关联用户
-        //set：用于按令牌快速反查用户**，依赖 Redis 自动过期机制。
-        redisUtils.set("access_token:" + accessToken, user.getUsername(), jwtUtils.getExpiration(), TimeUnit.SECONDS);
-        redisUtils.set("refresh_token:" + refreshToken, user.getUsername(), jwtUtils.getRefreshExpiration() / 1000, TimeUnit.SECONDS);
+        long epoch = userEpochService.epochForIssue(user.getUsername());
+        String accessToken = jwtUtils.generateToken(user.getUsername(), user.getRole(), epoch);
+        String refreshToken = jwtUtils.generateRefreshToken(user.getUsername(), user.getRole(), epoch);
+
+        // 4. 登记会话：只保存刷新令牌的摘要与过期时间（访问令牌通过用户纪元号吊销，不需要存储）
+        sessionTokenStore.issue(user.getUsername(), refreshToken,
+                System.currentTimeMillis() + jwtUtils.getRefreshExpiration());
 
         return new TokenPair(accessToken, refreshToken);
     }
@@ -145,53 +136,34 @@ public class UserServiceImpl implements UserService {
         String username = claims.getSubject();
         String role = claims.get("role", String.class);
 
-        // 4. 验证Redis存储的refreshToken
-        String storedToken = (String) redisUtils.get(username);
-        if (storedToken == null) {
+        // 禁用/注销账号、修改角色或密码之后签发前的刷新令牌全部失效（令牌中的角色可能已过时）
+        long epoch = userEpochService.epochForIssue(username);
+        if (jwtUtils.getEpoch(claims) < epoch) {
             throw new CustomException(ErrorCode.REVOKED_REFRESH_TOKEN);
         }
-        if (!storedToken.equals(refreshToken)) {
-            throw new CustomException(ErrorCode.MISMATCHED_REFRESH_TOKEN);
+
+        // 已禁用/注销的账号不能续签（账号被禁用后又被重新启用之前签发的刷新令牌已被纪元号吊销）
+        User user = userCacheService.get(username);
+        if (user == null) {
+            throw new CustomException(ErrorCode.USER_NOT_FOUND);
         }
+        if (!user.isEnabled()) {
+            throw new CustomException(ErrorCode.ACCOUNT_DEACTIVATED);
+        }
+
+        // 4. 生成新令牌
+        String newAccessToken = jwtUtils.generateToken(username, role, epoch);
+        String newRefreshToken = jwtUtils.generateRefreshToken(username, role, epoch);
 
-        // 5. 生成新令牌
-        String newAccessToken = jwtUtils.generateToken(username, role);
-        String newRefreshToken = jwtUtils.generateRefreshToken(username, role);
-
-        // 6. 更新Redis存储（保持TTL不变）
-        redisUtils.set(
-                username,
-                newRefreshToken,
-                jwtUtils.getRefreshExpiration() / 1000,
-                TimeUnit.SECONDS
-        );
-
-        // 7. 计算新令牌过期时间戳
-        long accessExpireTime = System.currentTimeMillis() + jwtUtils.getExpiration();
-        long refreshExpireTime = System.currentTimeMillis() + jwtUtils.getRefreshExpiration();
-
-        //只需要删除refreshToken是因为accessToken过期了才会调用这个函数
-        // 8. 从有序集合中移除旧令牌
-        redisUtils.removeFromZSet("user_refresh_tokens:" + username, refreshToken);//删除集合中的元素
-        redisUtils.delete("refresh_token:" + refreshToken);//把集合给删了
-
-        // 9. 添加新令牌到有序集合，使用过期时间作为分数
-        redisUtils.addToZSet("user_access_tokens:" + username, newAccessToken, accessExpireTime);
-        redisUtils.addToZSet("user_refresh_tokens:" + username, newRefreshToken, refreshExpireTime);
-
-        // 10. 存储新令牌详情
-        redisUtils.set(
-                "access_token:" + newAccessToken,
-                username,
-                jwtUtils.getExpiration() / 1000,
-                TimeUnit.SECONDS
-        );
-        redisUtils.set(
-                "refresh_token:" + newRefreshToken,
-                username,
-                jwtUtils.getRefreshExpiration() / 1000,
-                TimeUnit.SECONDS
-        );
+        // 5. 一次往返完成比较并轮换：旧令牌必须仍在会话中，替换为新令牌（同一令牌的并发刷新只有一个成功）
+        long rotated = sessionTokenStore.rotate(username, refreshToken, newRefreshToken,
+                System.currentTimeMillis() + jwtUtils.getRefreshExpiration());
+        if (rotated == 0) {
+            throw new CustomException(ErrorCode.REVOKED_REFRESH_TOKEN);
+        }
+        if (rotated < 0) {
+            throw new CustomException(ErrorCode.MISMATCHED_REFRESH_TOKEN);
+        }
 
         return new TokenPair(newAccessToken, newRefreshToken);
     }
@@ -214,9 +186,8 @@ public class UserServiceImpl implements UserService {
         user.setUpdatedAt(new Date());
         userRepository.updateById(user);
         
-        // 更新缓存
-        String redisKey = "user:" + username;
-        redisUtils.set(redisKey, user, 1, TimeUnit.HOURS);
+        // 失效全部节点的用户缓存
+        userCacheService.userChanged(username);
 
         //修改密码后所有令牌失效，需要重新登录
         // 使用新方法撤销所有令牌
@@ -226,95 +197,15 @@ public class UserServiceImpl implements UserService {
     
     @Override
     public User selectByUsername(String username) {
-
-        // 使用RedisUtils获取缓存
-        String redisKey = "user:" + username;
-        Object cachedData = redisUtils.get(redisKey);
-        User user = null;
-
-        // 处理缓存数据类型转换
-        if (cachedData != null) {
-            if (cachedData instanceof User) {
-                // 如果缓存中的对象已经是User类型
-                user = (User) cachedData;
-            } else if (cachedData instanceof Map) {
-                // 如果缓存中的对象是Map类型（如LinkedHashMap）
-                try {
-                    Map<String, Object> userMap = (Map<String, Object>) cachedData;
-                    user = convertMapToUser(userMap);
-                } catch (Exception e) {
-                    // 转换失败，记录日志并从数据库重新获取
-                    System.err.println("从缓存转换User对象失败: " + e.getMessage());
-                    // 删除有问题的缓存
-                    redisUtils.delete(redisKey);
-                }
-            }
-        }
-
-        if (user == null) {
-            user = userRepository.queryByUsername(username);
-            if (user != null) {
-                redisUtils.set(redisKey, user, 1, TimeUnit.HOURS);
-            }
-        }
-
-        return user;
+        // 本地缓存 -> Redis -> 数据库（见 UserCacheService）
+        return userCacheService.get(username);
     }
 
-    // 辅助方法：将Map转换为User对象
-    private User convertMapToUser(Map<String, Object> userMap) {
-        User user = new User();
-
-        // 设置基本属性
-        if (userMap.containsKey("id")) {
-            user.setId(Long.valueOf(userMap.get("id").toString()));
-        }
-        if (userMap.containsKey("username")) {
-            user.setUsername((String) userMap.get("username"));
-        }
-        if (userMap.containsKey("password")) {
-            user.setPassword((String) userMap.get("password"));
-        }
-        if (userMap.containsKey("email")) {
-            user.setEmail((String) userMap.get("email"));
-        }
-        if (userMap.containsKey("role")) {
-            user.setRole((String) userMap.get("role"));
-        }
-        if (userMap.containsKey("enabled")) {
-            user.setEnabled((Boolean) userMap.get("enabled"));
-        }
-
-        // 处理日期类型
-        if (userMap.containsKey("updatedAt")) {
-            Object dateObj = userMap.get("updatedAt");
-            if (dateObj instanceof Date) {
-                user.setUpdatedAt((Date) dateObj);
-            } else if (dateObj instanceof Long) {
-                user.setUpdatedAt(new Date((Long) dateObj));
-            } else if (dateObj instanceof String) {
-                // 可以添加字符串日期解析逻辑
-            }
-        }
-
-        if (userMap.containsKey("createdAt")) {
-            Object dateObj = userMap.get("createdAt");
-            if (dateObj instanceof Date) {
-                user.setCreatedAt((Date) dateObj);
-            } else if (dateObj instanceof Long) {
-                user.setCreatedAt(new Date((Long) dateObj));
-            } else if (dateObj instanceof String) {
-                // 可以添加字符串日期解析逻辑
-            }
-        }
-
-        return user;
-    }
 
     @Override
     public void deactivateAccount(String username) {
-        // 1. 查找用户
-        User user = selectByUsername(username);
+        // 1. 查找用户（直接查库：下面会修改该对象，不能修改缓存中的共享实例）
+        User user = userRepository.queryByUsername(username);
         if (user == null) {
             throw new CustomException(ErrorCode.USER_NOT_FOUND);
         }
@@ -324,9 +215,8 @@ public class UserServiceImpl implements UserService {
         user.setUpdatedAt(new Date());
         userRepository.updateById(user);
 
-        // 3. 清除用户缓存
-        String redisKey = "user:" + username;
-        redisUtils.delete(redisKey);
+        // 3. 清除用户缓存（全部节点）
+        userCacheService.userChanged(username);
 
         // 4. 使用新方法撤销所有令牌
         revokeAllTokensByUser(username);
@@ -344,9 +234,8 @@ public class UserServiceImpl implements UserService {
         user.setUpdatedAt(new Date());
         userRepository.updateById(user);
 
-        // 更新缓存
-        String redisKey = "user:" + username;
-        redisUtils.set(redisKey, user, 1, TimeUnit.HOURS);
+        // 失效全部节点的用户缓存
+        userCacheService.userChanged(username);
     }
 
     /**
@@ -354,33 +243,35 @@ public class UserServiceImpl implements UserService {
      * @param username 用户名
      */
     private void revokeAllTokensByUser(String username) {
-        // 删除用户关联的 Access Token
-        Set<String> accessTokens = redisUtils.getZSetMembers("user_access_tokens:" + username);//获取用户所有的访问令牌列表
-        accessTokens.forEach(token -> redisUtils.delete("access_token:" + token));//遍历删除每个访问令牌的详情记录
-        redisUtils.delete("user_access_tokens:" + username);//删除整个用户访问令牌集合
-
-        // 删除用户关联的 Refresh Token
-        Set<String> refreshTokens = redisUtils.getZSetMembers("user_refresh_tokens:" + username);//获取用户所有的刷新令牌列表
-        refreshTokens.forEach(token -> redisUtils.delete("refresh_token:" + token));//遍历删除每个刷新令牌的详情记录
-        redisUtils.delete("user_refresh_tokens:" + username);//删除整个用户刷新令牌集合
-
-        //以用户名为键的主刷新令牌记录
-        redisUtils.delete(username);
-
-        // 4. 额外安全措施：使用模式匹配删除可能遗漏的令牌
-        // 注意：这是一个昂贵的操作，仅在必要时使用
-        //redisUtils.deleteByPattern("access_token:*" + username + "*");
-        //redisUtils.deleteByPattern("refresh_token:*" + username + "*");
+        // 删除用户的全部会话（单个key），并使已签发的访问令牌失效（纪元号加一），两者都在事务提交后执行
+        sessionTokenStore.revokeAll(username);
+        userEpochService.revokeAll(username);
     }
 
     @Override
-    public IPage<User> getAllUsers(int page, int size) {
-        // 创建分页对象
-        Page<User> pageParam = new Page<>(page, size);
+    public IPage<User> getAllUsers(int page, int size, boolean withTotal) {
+        // 创建分页对象（不需要总数时省掉 COUNT 查询）
+        Page<User> pageParam = new Page<>(page, size, withTotal);
         // 使用MyBatis-Plus的分页查询
         return userRepository.selectPage(pageParam, null);
     }
 
+    @Override
+    public CursorPage<User> getUsersByCursor(String cursor, int size, boolean withTotal) {
+        PageCursor position = PageCursor.decode(cursor);
+        int pageSize = CursorPage.normalizeSize(size);
+
+        // 多取一条用于判断是否还有下一页
+        List<User> rows = userRepository.selectUsersAfter(
+                position == null ? null : position.getDate(),
+                position == null ? null : position.getId(),
+                pageSize + 1);
+
+        Long total = withTotal ? userRepository.selectCount(null) : null;
+        return CursorPage.of(rows, pageSize,
+                last -> PageCursor.encode(last.getCreatedAt(), last.getId()), total);
+    }
+
     @Override
     public void updateUserStatus(String username, boolean enabled) {
         // 检查用户是否存在
@@ -395,9 +286,13 @@ public class UserServiceImpl implements UserService {
             throw new CustomException(ErrorCode.OPERATION_FAILED);
         }
 
-        // 更新缓存
-        String redisKey = "user:" + username;
-        redisUtils.delete(redisKey);
+        // 失效全部节点的用户缓存
+        userCacheService.userChanged(username);
+
+        // 禁用后已签发的令牌立即失效
+        if (!enabled) {
+            userEpochService.revokeAll(username);
+        }
     }
 
     @Override
@@ -419,9 +314,11 @@ public class UserServiceImpl implements UserService {
             throw new CustomException(ErrorCode.OPERATION_FAILED);
         }
 
-        // 更新缓存
-        String redisKey = "user:" + username;
-        redisUtils.delete(redisKey);
+        // 失效全部节点的用户缓存
+        userCacheService.userChanged(username);
+
+        // 令牌中携带角色声明，角色变更后需要重新登录以获取新角色
+        userEpochService.revokeAll(username);
     }
 
     @Override
@@ -433,42 +330,4 @@ public class UserServiceImpl implements UserService {
     public boolean existsByUsername(String username) {
         return userRepository.existsByUsername(username);
     }
-
-    // 在 UserServiceImpl 中添加定时任务
-    // 定时任务，每小时执行一次，清理过期的令牌
-    @Scheduled(cron = "0 0 * * * *")
-    public void cleanupExpiredTokens() {
-        // 当前时间戳
-        long currentTime = System.currentTimeMillis();
-
-        // 获取所有用户
-        List<User> users = userRepository.selectList(null);
-        for (User user : users) {
-            // 清理访问令牌 - 使用ZREMRANGEBYSCORE移除所有过期的令牌
-            redisUtils.removeRangeByScore("user_access_tokens:" + user.getUsername(), 0, currentTime);
-
-            // 清理刷新令牌 - 使用ZREMRANGEBYSCORE移除所有过期的令牌
-            redisUtils.removeRangeByScore("user_refresh_tokens:" + user.getUsername(), 0, currentTime);
-        }
-    }
-
-    private void cleanupUserTokens(String username) {
-        // 清理访问令牌
-        Set<String> accessTokens = redisUtils.getMembers("user_access_tokens:" + username);
-        for (String token : accessTokens) {
-            try {
-                Claims claims = jwtUtils.parseToken(token);
-                // 如果令牌已过期，从集合中移除
-                if (claims.getExpiration().before(new Date())) {
-                    redisUtils.removeFromSet("user_access_tokens:" + username, token);
-                }
-            } catch (Exception e) {
-                // 解析失败，令牌无效，移除
-                redisUtils.removeFromSet("user_access_tokens:" + username, token);
-            }
-        }
-
-        // 同样处理刷新令牌
-        // ...
-    }
 }
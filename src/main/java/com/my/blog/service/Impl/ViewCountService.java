@@ -0,0 +1,134 @@
+package com.my.blog.service.Impl;
+
+import com.my.blog.entity.Article;
+import com.my.blog.repository.ArticleRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 文章浏览量写回（write-behind）
+ * 每次阅读只在内存中的分段计数器（LongAdder）上加一，由定时任务把增量批量写入 MySQL
+ * 节点宕机时最多丢失一个刷新周期内的浏览量
+ * 一个刷新周期内没有新增浏览的文章从计数表中移除，计数表的大小只与近期被阅读的文章数有关
+ */
+@Slf4j
+@Service
+public class ViewCountService {
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private ArticleCacheService articleCacheService;
+
+    @Value("${view-count.batch-size:500}")
+    private int batchSize;  // 单条 UPDATE 语句最多包含的文章数
+
+    /**
+     * 尚未写入数据库的浏览量增量（文章ID -> 增量）
+     */
+    private final ConcurrentHashMap<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 记录一次浏览
+     * @param articleId 文章ID
+     */
+    public void increment(Long articleId) {
+        add(articleId, 1);
+    }
+
+    /**
+     * 获取尚未写入数据库的浏览量增量
+     * @param articleId 文章ID
+     * @return 增量
+     */
+    public long pendingDelta(Long articleId) {
+        LongAdder adder = pending.get(articleId);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /**
+     * 返回文章副本，浏览量为 数据库计数 + 未落库增量（不修改缓存中的共享对象）
+     * @param article 文章
+     * @return 带实时浏览量的文章副本
+     */
+    public Article withPendingViews(Article article) {
+        long base = article.getViewCount() == null ? 0 : article.getViewCount();
+        return article.toBuilder()
+                .viewCount((int) Math.min(Integer.MAX_VALUE, base + pendingDelta(article.getArticleId())))
+                .build();
+    }
+
+    /**
+     * 定时把浏览量增量批量写入数据库
+     */
+    @Scheduled(fixedDelayString = "${view-count.flush-interval-millis:5000}")
+    public void flush() {
+        Map<Long, Long> batch = new HashMap<>();
+        for (Map.Entry<Long, LongAdder> entry : pending.entrySet()) {
+            long delta = entry.getValue().sumThenReset();
+            if (delta == 0) {
+                // 空闲的计数器：移除后再取一次，转移移除前最后一刻落在它上面的增量
+                if (pending.remove(entry.getKey(), entry.getValue())) {
+                    long late = entry.getValue().sumThenReset();
+                    if (late > 0) {
+                        add(entry.getKey(), late);
+                    }
+                }
+            } else {
+                batch.put(entry.getKey(), delta);
+                if (batch.size() >= batchSize) {
+                    write(batch);
+                    batch = new HashMap<>();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    /**
+     * 应用关闭前写入剩余增量
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void write(Map<Long, Long> deltas) {
+        try {
+            articleRepository.batchIncrementViewCount(deltas);
+        } catch (Exception e) {
+            // 写库失败时把增量放回，下个周期重试
+            log.error("浏览量批量写入失败，{}篇文章的增量将在下次重试", deltas.size(), e);
+            deltas.forEach(this::add);
+            return;
+        }
+
+        // 已落库的增量并入缓存中的基数（L1 与 Redis），避免读取时浏览量回退
+        deltas.forEach(articleCacheService::addViewCount);
+    }
+
+    // 计数器可能刚被 flush 作为空闲计数器移除：增量若落在已移除的计数器上，就把它转移到新的计数器
+    // sumThenReset 逐个 cell 原子取走，转移与 flush 的补取不会重复计算
+    private void add(Long articleId, long delta) {
+        LongAdder adder = pending.computeIfAbsent(articleId, id -> new LongAdder());
+        adder.add(delta);
+        if (pending.get(articleId) != adder) {
+            long moved = adder.sumThenReset();
+            if (moved > 0) {
+                add(articleId, moved);
+            }
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.my.blog.dto.request.LoginDTO;
 import com.my.blog.dto.request.RegisterDTO;
 import com.my.blog.dto.request.UpdatePasswordDTO;
+import com.my.blog.dto.response.CursorPage;
 import com.my.blog.dto.response.TokenPair;
 import com.my.blog.entity.User;
 import org.apache.ibatis.annotations.Param;
@@ -40,9 +41,19 @@ public interface UserService {
      * 分页获取所有用户信息
      * @param page 页码
      * @param size 每页大小
+     * @param withTotal 是否统计总条数
      * @return 用户分页数据
      */
-    IPage<User> getAllUsers(int page, int size);
+    IPage<User> getAllUsers(int page, int size, boolean withTotal);
+
+    /**
+     * 游标分页获取所有用户，按 (created_at, id) 倒序
+     * @param cursor 上一页返回的 nextCursor，第一页传 null
+     * @param size 每页大小
+     * @param withTotal 是否统计总条数
+     * @return 用户游标分页结果
+     */
+    CursorPage<User> getUsersByCursor(String cursor, int size, boolean withTotal);
 
     /**
      * 更新用户状态（启用/禁用）
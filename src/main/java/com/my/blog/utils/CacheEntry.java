@@ -0,0 +1,50 @@
+package com.my.blog.utils;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Redis 中的缓存条目：在值旁边记录重建耗时与过期时间，供读取方做提前刷新判断
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheEntry {
+
+    /**
+     * 缓存的值（反序列化后通常为 Map，由调用方转换）
+     */
+    private Object value;
+
+    /**
+     * 重建该值的耗时（毫秒）
+     */
+    private long delta;
+
+    /**
+     * 逻辑过期时间（毫秒时间戳）
+     */
+    private long expiry;
+
+    /**
+     * 从 Redis 读出的对象还原缓存条目
+     * @param raw Redis 中读出的对象
+     * @return 缓存条目；不是条目格式（如旧版本直接写入的值）时返回 null
+     */
+    public static CacheEntry from(Object raw) {
+        if (raw instanceof CacheEntry) {
+            return (CacheEntry) raw;
+        }
+        if (!(raw instanceof Map<?, ?> map)
+                || map.size() != 3
+                || !map.containsKey("value")
+                || !(map.get("delta") instanceof Number delta)
+                || !(map.get("expiry") instanceof Number expiry)) {
+            return null;
+        }
+        return new CacheEntry(map.get("value"), delta.longValue(), expiry.longValue());
+    }
+}
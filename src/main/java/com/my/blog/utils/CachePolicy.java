@@ -0,0 +1,176 @@
+package com.my.blog.utils;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 缓存条目策略（构建在 RedisUtils.set 之上）
+ * 1. 写入时给TTL加随机抖动，避免同一批预热/加载的条目在同一秒集中过期
+ * 2. 值旁边记录重建耗时与过期时间（CacheEntry），读取时按 XFetch 算法以随临近过期而升高的概率
+ *    在后台提前刷新：now - delta * beta * ln(rand) >= expiry
+ *    重建越慢（delta越大）、越接近过期，越早触发，热点key不会在所有节点上同时过期
+ */
+@Slf4j
+@Component
+public class CachePolicy {
+
+    @Autowired
+    private RedisUtils redisUtils;
+
+    @Value("${cache.policy.ttl-jitter-ratio:0.1}")
+    private double ttlJitterRatio;  // TTL最大额外延长比例（0.1 表示在原TTL基础上随机延长0~10%）
+
+    @Value("${cache.policy.xfetch-beta:1.0}")
+    private double beta;  // 提前刷新的激进程度，大于1更早刷新
+
+    @Value("${cache.policy.default-compute-millis:20}")
+    private long defaultComputeMillis;  // 未测量重建耗时时使用的默认值（毫秒）
+
+    /**
+     * 正在后台刷新的key，避免同一节点重复提交
+     */
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 后台刷新线程池：队列满时放弃本次刷新（条目到期后仍会按正常流程加载）
+     */
+    private final ThreadPoolExecutor refreshExecutor;
+
+    public CachePolicy(@Value("${cache.policy.refresh-threads:2}") int refreshThreads,
+                       @Value("${cache.policy.refresh-queue-size:256}") int refreshQueueSize) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.refreshExecutor = new ThreadPoolExecutor(refreshThreads, refreshThreads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(refreshQueueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "cache-refresh-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * 写入缓存条目（TTL带抖动，并记录重建耗时）
+     * @param key 键
+     * @param value 值
+     * @param timeout 基础过期时间
+     * @param unit 时间单位
+     * @param computeMillis 重建该值的耗时（毫秒）
+     */
+    public void set(String key, Object value, long timeout, TimeUnit unit, long computeMillis) {
+        long ttlMillis = jitter(unit.toMillis(timeout));
+        CacheEntry entry = new CacheEntry(value, Math.max(0, computeMillis), System.currentTimeMillis() + ttlMillis);
+        redisUtils.set(key, entry, ttlMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 写入缓存条目，重建耗时取默认值（用于写穿透等未测量耗时的场景）
+     * @param key 键
+     * @param value 值
+     * @param timeout 基础过期时间
+     * @param unit 时间单位
+     */
+    public void set(String key, Object value, long timeout, TimeUnit unit) {
+        set(key, value, timeout, unit, defaultComputeMillis);
+    }
+
+    /**
+     * 执行加载函数并写入缓存，重建耗时取加载函数的实际执行时间
+     * @param key 键
+     * @param loader 加载函数，返回 null 时不写缓存
+     * @param timeout 基础过期时间
+     * @param unit 时间单位
+     * @return 加载结果
+     */
+    public <T> T load(String key, Supplier<T> loader, long timeout, TimeUnit unit) {
+        long start = System.nanoTime();
+        T value = loader.get();
+        if (value != null) {
+            set(key, value, timeout, unit, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        return value;
+    }
+
+    /**
+     * 读取缓存条目，必要时在后台提前刷新
+     * @param key 键
+     * @param converter 把 Redis 中读出的值转换为目标类型，返回 null 视为未命中
+     * @param refresher 后台刷新函数（负责重新加载并回写缓存）
+     * @return 缓存的值，未命中时返回 null
+     */
+    public <T> T get(String key, Function<Object, T> converter, Runnable refresher) {
+        Object raw = redisUtils.get(key);
+        if (raw == null) {
+            return null;
+        }
+
+        CacheEntry entry = CacheEntry.from(raw);
+        if (entry == null) {
+            // 旧格式条目：没有过期提示，直接使用
+            return converter.apply(raw);
+        }
+
+        T value = converter.apply(entry.getValue());
+        if (value != null && shouldRefreshEarly(entry)) {
+            refreshAsync(key, refresher);
+        }
+        return value;
+    }
+
+    /**
+     * 给过期时间加随机抖动（单位与入参一致）
+     * @param timeout 基础过期时间
+     * @return 抖动后的过期时间，范围 [timeout, timeout * (1 + ttlJitterRatio))
+     */
+    public long jitter(long timeout) {
+        if (ttlJitterRatio <= 0 || timeout <= 0) {
+            return timeout;
+        }
+        return timeout + (long) (timeout * ttlJitterRatio * ThreadLocalRandom.current().nextDouble());
+    }
+
+    // XFetch：delta * beta * -ln(rand) 服从指数分布，越接近过期越可能超过剩余时间
+    private boolean shouldRefreshEarly(CacheEntry entry) {
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble();  // (0, 1]，避免 ln(0)
+        double gap = entry.getDelta() * beta * -Math.log(random);
+        return System.currentTimeMillis() + gap >= entry.getExpiry();
+    }
+
+    private void refreshAsync(String key, Runnable refresher) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    refresher.run();
+                } catch (Exception e) {
+                    log.warn("缓存提前刷新失败 key={}: {}", key, e.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,23 @@
+package com.my.blog.utils;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 命名空间版本号：每次数据变更后版本号加一，并记录变更时间
+ * 用于派生 HTTP 缓存校验值（ETag / Last-Modified）
+ */
+@Data
+@AllArgsConstructor
+public class CacheVersion {
+
+    /**
+     * 版本号
+     */
+    private long version;
+
+    /**
+     * 最近一次变更的时间（毫秒时间戳）
+     */
+    private long modifiedMillis;
+}
@@ -0,0 +1,95 @@
+package com.my.blog.utils;
+
+import com.my.blog.entity.Article;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.function.Supplier;
+
+/**
+ * HTTP 条件请求工具
+ * 响应带上 ETag / Last-Modified，客户端携带 If-None-Match / If-Modified-Since 再次请求且数据未变时直接返回 304
+ */
+@Slf4j
+public class HttpCacheUtils {
+
+    private HttpCacheUtils() {
+    }
+
+    /**
+     * 校验条件请求，同时写入 ETag、Last-Modified 与 Cache-Control: no-cache（允许客户端缓存，但每次使用前必须校验）
+     * 返回 true 时响应状态已被设置为 304，控制器应直接返回 null，不再加载或序列化数据
+     * @param request 当前请求
+     * @param etag ETag（含引号，弱校验值以 W/ 开头）
+     * @param lastModifiedMillis 最近修改时间（毫秒时间戳），未知时传 -1
+     * @return 客户端缓存是否仍然有效
+     */
+    public static boolean checkNotModified(ServletWebRequest request, String etag, long lastModifiedMillis) {
+        // 先于 Spring Security 写入，后者发现已有 Cache-Control 时不会再写 no-store
+        if (request.getResponse() != null) {
+            request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        }
+        return request.checkNotModified(etag, lastModifiedMillis);
+    }
+
+    /**
+     * 按命名空间版本校验条件请求；读取版本失败（如 Redis 不可用）时跳过校验，按普通请求返回完整数据
+     * @param request 当前请求
+     * @param namespace 命名空间，如 tags
+     * @param versionReader 读取当前版本的函数
+     * @return 客户端缓存是否仍然有效
+     */
+    public static boolean checkNotModified(ServletWebRequest request, String namespace, Supplier<CacheVersion> versionReader) {
+        CacheVersion version;
+        try {
+            version = versionReader.get();
+        } catch (Exception e) {
+            log.warn("读取{}版本号失败，跳过条件请求校验: {}", namespace, e.getMessage());
+            return false;
+        }
+        return checkNotModified(request, versionETag(namespace, version), version.getModifiedMillis());
+    }
+
+    /**
+     * 文章详情的 ETag：文章ID + 最近修改时间 + 状态
+     * 响应中的浏览量实时变化但不参与校验，两次响应字节并不完全相同，因此使用弱 ETag
+     * @param article 文章
+     * @return ETag
+     */
+    public static String articleETag(Article article) {
+        return "W/\"article-" + article.getArticleId() + "-" + lastModifiedMillis(article) + "-" + article.getStatus() + "\"";
+    }
+
+    /**
+     * 按校验版本生成的文章详情 ETag（版本号 + 变更时间），不需要加载文章即可计算；与 articleETag 一样是弱 ETag
+     * @param articleId 文章ID
+     * @param version 文章的校验版本
+     * @return ETag
+     */
+    public static String articleETag(Long articleId, CacheVersion version) {
+        return "W/\"article-" + articleId + "-v" + version.getVersion() + "-" + version.getModifiedMillis() + "\"";
+    }
+
+    /**
+     * 文章的最近修改时间：从未修改过时取发布时间
+     * @param article 文章
+     * @return 毫秒时间戳，两者都为空时返回 -1
+     */
+    public static long lastModifiedMillis(Article article) {
+        LocalDateTime time = article.getUpdateTime() != null ? article.getUpdateTime() : article.getPublishTime();
+        return time == null ? -1 : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * 由命名空间版本生成强 ETag（版本号 + 变更时间，Redis 数据丢失后版本号从0重新计数也不会与旧值冲突）
+     * @param namespace 命名空间，如 tags
+     * @param version 版本
+     * @return ETag
+     */
+    public static String versionETag(String namespace, CacheVersion version) {
+        return "\"" + namespace + "-" + version.getVersion() + "-" + version.getModifiedMillis() + "\"";
+    }
+}
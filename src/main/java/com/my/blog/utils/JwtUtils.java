@@ -1,22 +1,63 @@
 package com.my.blog.utils;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * JWT工具类，基于jjwt库实现令牌管理
  * 功能包含：生成/解析令牌、刷新令牌机制、密钥配置化管理
+ *
+ * 密钥与解析器在启动时构建一次（JwtParser 不可变、线程安全），不在每次请求时重新创建
+ * 密钥轮换：新令牌用当前密钥签名并在头部写入 kid，验证时按 kid 选择密钥；
+ * 轮换时把旧密钥移入 jwt.retired-keys，旧令牌到期前仍能通过验证。没有 kid 的令牌（轮换支持之前签发）用当前密钥验证
+ * 验证结果缓存：按令牌的 SHA-256 摘要缓存已验证的声明，条目随令牌到期（最长 jwt.verified-cache.max-ttl-seconds），
+ * 同一令牌的后续请求跳过 HMAC-SHA512 校验与 JSON 解析；缓存不保存令牌原文
  */
 @Component
 public class JwtUtils {
 
+    /**
+     * 用户纪元号声明（见 UserEpochService），纪元号变化后此前签发的令牌失效
+     */
+    public static final String EPOCH_CLAIM = "ep";
+
     @Value("${jwt.secret}")
-    private String secret;  // 签名密钥，从配置文件注入
+    private String secret;  // 当前签名密钥，从配置文件注入
+
+    @Value("${jwt.key-id:primary}")
+    private String keyId;  // 当前签名密钥的 kid
+
+    @Value("${jwt.retired-keys:}")
+    private String retiredKeys;  // 只用于验证的旧密钥，格式 kid=secret,kid=secret
+
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private long verifiedCacheSize;  // 验证结果缓存的最大条目数
+
+    @Value("${jwt.verified-cache.max-ttl-seconds:300}")
+    private long verifiedCacheMaxTtlSeconds;  // 验证结果最长缓存时间（秒），令牌更早到期时随令牌失效
 
     @Value("${jwt.expiration}")
     private Long expiration;  // 访问令牌有效期（毫秒）
@@ -24,56 +65,141 @@ public class JwtUtils {
     @Value("${jwt.refreshExpiration}")
     private Long refreshExpiration;  // 刷新令牌有效期（毫秒）
 
+    private SecretKey signingKey;
+
+    private JwtParser parser;
+
+    private Cache<String, Claims> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        Map<String, SecretKey> verificationKeys = new HashMap<>();
+        for (String entry : retiredKeys.split(",")) {
+            int separator = entry.indexOf('=');
+            if (separator > 0) {
+                verificationKeys.put(entry.substring(0, separator).trim(),
+                        Keys.hmacShaKeyFor(entry.substring(separator + 1).trim().getBytes()));
+            }
+        }
+        verificationKeys.put(keyId, signingKey);
+
+        parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        String kid = header.getKeyId();
+                        if (kid == null) {
+                            return signingKey;
+                        }
+                        SecretKey key = verificationKeys.get(kid);
+                        if (key == null) {
+                            throw new JwtException("未知的密钥ID: " + kid);
+                        }
+                        return key;
+                    }
+                })
+                .build();
+
+        long maxTtlNanos = TimeUnit.SECONDS.toNanos(verifiedCacheMaxTtlSeconds);
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String digest, Claims claims, long currentTime) {
+                        Date expiration = claims.getExpiration();
+                        if (expiration == null) {
+                            return maxTtlNanos;
+                        }
+                        long remaining = TimeUnit.MILLISECONDS.toNanos(expiration.getTime() - System.currentTimeMillis());
+                        return Math.max(0, Math.min(remaining, maxTtlNanos));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String digest, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String digest, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
     /**
      * 生成访问令牌（包含用户角色信息）
      * @param username 用户唯一标识，作为令牌主题
      * @param role 用户角色，存储为自定义声明
+     * @param epoch 签发时用户的纪元号
      * @return 签名后的JWT字符串
      */
-    public String generateToken(String username, String role) {
-        // 将配置的密钥字符串转换为HMAC-SHA算法所需的SecretKey对象
-        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes());
+    public String generateToken(String username, String role, long epoch) {
         return Jwts.builder()
+                .header().keyId(keyId).and()  // 标识签名密钥，便于轮换
                 .subject(username)  // 设置令牌主题
                 .claim("role", role)  // 添加角色声明
                 .claim("type", "access")  // 明确标识为访问令牌
+                .claim(EPOCH_CLAIM, epoch)  // 用户纪元号，用于吊销
                 .issuedAt(new Date())  // 签发时间
                 .expiration(new Date(System.currentTimeMillis() + expiration))  // 动态计算过期时间
-                .signWith(key, Jwts.SIG.HS512)  // 使用HS512算法签名
+                .signWith(signingKey, Jwts.SIG.HS512)  // 使用HS512算法签名
                 .compact();  // 生成紧凑的URL安全字符串
     }
 
     /**
      * 生成长期有效的刷新令牌（包含类型标识）
+     * 带随机的 jti：同一用户在同一秒内签发的两个刷新令牌也各不相同，会话摘要不会互相覆盖
      * @param username 用户唯一标识
      * @param role 用户角色
+     * @param epoch 签发时用户的纪元号
      * @return 签名后的刷新令牌字符串
      */
-    public String generateRefreshToken(String username, String role) {
-        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes());
+    public String generateRefreshToken(String username, String role, long epoch) {
         return Jwts.builder()
+                .header().keyId(keyId).and()
+                .id(UUID.randomUUID().toString())
                 .subject(username)
                 .claim("role", role)
                 .claim("type", "refresh")  // 明确令牌类型标识
+                .claim(EPOCH_CLAIM, epoch)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + refreshExpiration))  // 使用独立的长有效期
-                .signWith(key, Jwts.SIG.HS512)
+                .signWith(signingKey, Jwts.SIG.HS512)
                 .compact();
     }
 
     /**
-     * 解析并验证JWT令牌有效性
+     * 解析并验证JWT令牌有效性（最近验证过的令牌直接返回缓存的声明）
      * @param token JWT字符串
-     * @return 包含声明信息的Claims对象
+     * @return 包含声明信息的Claims对象（只读）
      * @throws io.jsonwebtoken.JwtException 当令牌过期或签名无效时抛出异常
      */
     public Claims parseToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes());
-        return Jwts.parser()
-                .verifyWith(key)  // 设置验证密钥
-                .build()
-                .parseSignedClaims(token)  // 执行签名验证
-                .getPayload();  // 获取已验证的声明数据
+        String digest = tokenDigest(token);
+        Claims cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return cached;
+        }
+        Claims claims = parser.parseSignedClaims(token).getPayload();  // 执行签名验证，只缓存验证通过的令牌
+        verifiedTokens.put(digest, claims);
+        return claims;
+    }
+
+    /**
+     * 令牌的短摘要（SHA-256 的前128位，URL安全的Base64，22个字符）
+     * 用作验证结果缓存与会话存储的键，不在内存和 Redis 中保留令牌原文
+     * @param token JWT字符串
+     * @return 摘要字符串
+     */
+    public String tokenDigest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 16));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);  // 所有 JDK 都必须提供 SHA-256
+        }
     }
 
     /**
@@ -99,7 +225,17 @@ public class JwtUtils {
     public String generateNewAccessToken(String refreshToken) {
         Claims claims = parseToken(refreshToken);
         // 复用用户主体信息和角色生成新令牌
-        return generateToken(claims.getSubject(), claims.get("role").toString());
+        return generateToken(claims.getSubject(), claims.get("role").toString(), getEpoch(claims));
+    }
+
+    /**
+     * 读取令牌中的用户纪元号
+     * @param claims 已验证的声明
+     * @return 纪元号，支持吊销之前签发的令牌没有该声明，视为 0
+     */
+    public long getEpoch(Claims claims) {
+        Object epoch = claims.get(EPOCH_CLAIM);
+        return epoch instanceof Number ? ((Number) epoch).longValue() : 0L;
     }
 
     /**
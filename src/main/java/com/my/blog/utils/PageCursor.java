@@ -0,0 +1,90 @@
+package com.my.blog.utils;
+
+import com.my.blog.exception.CustomException;
+import com.my.blog.exception.ErrorCode;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * 游标分页的位置：排序列的值 + 主键（用于排序列相同时的决胜）
+ * 对外以 Base64URL 编码的不透明字符串传递，客户端只需原样带回
+ */
+public final class PageCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private final String sortKey;
+
+    private final Long id;
+
+    private PageCursor(String sortKey, Long id) {
+        this.sortKey = sortKey;
+        this.id = id;
+    }
+
+    /**
+     * 以 LocalDateTime 排序列生成游标
+     * @param time 排序列的值
+     * @param id 主键
+     * @return 编码后的游标
+     */
+    public static String encode(LocalDateTime time, Long id) {
+        return encode(time.toString(), id);
+    }
+
+    /**
+     * 以 Date 排序列生成游标（按毫秒时间戳保存，避免时区转换）
+     * @param date 排序列的值
+     * @param id 主键
+     * @return 编码后的游标
+     */
+    public static String encode(Date date, Long id) {
+        return encode(String.valueOf(date.getTime()), id);
+    }
+
+    /**
+     * 解析客户端带回的游标
+     * @param cursor 编码后的游标
+     * @return 游标；为空时返回 null（表示第一页）
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new PageCursor(raw.substring(0, separator), Long.valueOf(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new CustomException(ErrorCode.PARAM_VALIDATION_FAILED);
+        }
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDateTime getTime() {
+        try {
+            return LocalDateTime.parse(sortKey);
+        } catch (RuntimeException e) {
+            throw new CustomException(ErrorCode.PARAM_VALIDATION_FAILED);
+        }
+    }
+
+    public Date getDate() {
+        try {
+            return new Date(Long.parseLong(sortKey));
+        } catch (RuntimeException e) {
+            throw new CustomException(ErrorCode.PARAM_VALIDATION_FAILED);
+        }
+    }
+
+    private static String encode(String sortKey, Long id) {
+        String raw = sortKey + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,20 +1,40 @@
 package com.my.blog.utils;
 
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.Resource;
 
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
 
 @Component
 public class RedisUtils {
 
+    /**
+     * 值等于期望值时才删除（比较与删除原子执行）
+     */
+    private static final RedisScript<Long> DELETE_IF_EQUALS_SCRIPT = RedisScript.of(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end\n" +
+            "return 0", Long.class);
+
     @Resource
     private RedisTemplate<String, Object> redisTemplate;
 
+    /**
+     * 当前节点标识（每次启动随机生成），用于发布/订阅时识别消息来源
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
     /**
      * 设置缓存
      * @param key 键
@@ -26,6 +46,15 @@ public class RedisUtils {
         redisTemplate.opsForValue().set(key, value, timeout, unit);
     }
 
+    /**
+     * 设置缓存（不过期）
+     * @param key 键
+     * @param value 值
+     */
+    public void set(String key, Object value) {
+        redisTemplate.opsForValue().set(key, value);
+    }
+
     /**
      * 获取缓存
      * @param key 键
@@ -43,6 +72,138 @@ public class RedisUtils {
         redisTemplate.delete(key);
     }
 
+    /**
+     * 值等于期望值时才删除（用于释放自己持有的锁/租约）
+     * @param key 键
+     * @param expected 期望值（与写入时使用相同的序列化方式比较）
+     * @return 是否删除
+     */
+    public boolean deleteIfEquals(String key, Object expected) {
+        Long deleted = redisTemplate.execute(DELETE_IF_EQUALS_SCRIPT, List.of(key), expected);
+        return deleted != null && deleted > 0;
+    }
+
+    /**
+     * 乐观更新已存在的键（WATCH/MULTI），保留剩余过期时间；其他客户端并发修改时重试
+     * @param key 键
+     * @param updater 根据当前值计算新值，返回 null 表示放弃更新
+     * @param maxAttempts 最大尝试次数
+     * @return 是否更新成功（键不存在、放弃更新或多次冲突时返回 false）
+     */
+    @SuppressWarnings("unchecked")
+    public boolean updateIfPresent(String key, UnaryOperator<Object> updater, int maxAttempts) {
+        for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            Boolean updated = redisTemplate.execute(new SessionCallback<Boolean>() {
+                @Override
+                public <K, V> Boolean execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                    ops.watch(key);
+                    Object current = ops.opsForValue().get(key);
+                    Long ttlMillis = ops.getExpire(key, TimeUnit.MILLISECONDS);
+                    Object value = current == null ? null : updater.apply(current);
+                    if (value == null || ttlMillis == null || ttlMillis == -2 || ttlMillis == 0) {
+                        ops.unwatch();
+                        return null;
+                    }
+                    ops.multi();
+                    if (ttlMillis > 0) {
+                        ops.opsForValue().set(key, value, ttlMillis, TimeUnit.MILLISECONDS);
+                    } else {
+                        ops.opsForValue().set(key, value);
+                    }
+                    // 被监视的键在此期间被修改时事务放弃，返回空结果
+                    return !ops.exec().isEmpty();
+                }
+            });
+            if (updated == null) {
+                return false;
+            }
+            if (updated) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 原子自增（键不存在时从0开始）
+     * @param key 键
+     * @return 自增后的值
+     */
+    public Long increment(String key) {
+        return redisTemplate.opsForValue().increment(key);
+    }
+
+    /**
+     * 哈希字段原子自增（字段不存在时从0开始）
+     * @param key 键
+     * @param field 字段
+     * @param delta 增量
+     * @return 自增后的值
+     */
+    public Long hashIncrement(String key, String field, long delta) {
+        return redisTemplate.opsForHash().increment(key, field, delta);
+    }
+
+    /**
+     * 设置哈希字段
+     * @param key 键
+     * @param field 字段
+     * @param value 值
+     */
+    public void hashPut(String key, String field, Object value) {
+        redisTemplate.opsForHash().put(key, field, value);
+    }
+
+    /**
+     * 批量设置哈希字段（HSET 多个字段，已存在的字段被覆盖）
+     * @param key 键
+     * @param fields 字段与值
+     */
+    public void hashPutAll(String key, Map<String, ?> fields) {
+        redisTemplate.opsForHash().putAll(key, fields);
+    }
+
+    /**
+     * 删除哈希字段
+     * @param key 键
+     * @param fields 字段
+     * @return 实际删除的字段数
+     */
+    public Long hashDelete(String key, Object... fields) {
+        return redisTemplate.opsForHash().delete(key, fields);
+    }
+
+    /**
+     * 哈希字段不存在时才写入
+     * @param key 键
+     * @param field 字段
+     * @param value 值
+     * @return 是否写入成功
+     */
+    public Boolean hashPutIfAbsent(String key, String field, Object value) {
+        return redisTemplate.opsForHash().putIfAbsent(key, field, value);
+    }
+
+    /**
+     * 获取哈希字段的值
+     * @param key 键
+     * @param field 字段
+     * @return 值，字段不存在时为 null
+     */
+    public Object hashGet(String key, String field) {
+        return redisTemplate.opsForHash().get(key, field);
+    }
+
+    /**
+     * 获取哈希的全部字段
+     * @param key 键
+     * @return 字段与值，key不存在时为空Map
+     */
+    public Map<Object, Object> hashGetAll(String key) {
+        return redisTemplate.opsForHash().entries(key);
+    }
+
     /**
      * 判断key是否存在
      * @param key 键
@@ -52,6 +213,25 @@ public class RedisUtils {
         return Boolean.TRUE.equals(redisTemplate.hasKey(key));
     }
 
+    /**
+     * 批量获取缓存（一次往返）
+     * @param keys 键列表
+     * @return 与键一一对应的值，不存在的键对应 null
+     */
+    public List<Object> multiGet(List<String> keys) {
+        return redisTemplate.opsForValue().multiGet(keys);
+    }
+
+    /**
+     * 键不存在时写入值（不过期）
+     * @param key 键
+     * @param value 值
+     * @return 是否设置成功
+     */
+    public Boolean setIfAbsent(String key, Object value) {
+        return redisTemplate.opsForValue().setIfAbsent(key, value);
+    }
+
     /**
      * 原子性操作：设置键不存在时写入值，并设置过期时间
      * @param key 键
@@ -162,4 +342,30 @@ public class RedisUtils {
     public Long removeRangeByScore(String key, double min, double max) {
         return redisTemplate.opsForZSet().removeRangeByScore(key, min, max);
     }
-}
\ No newline at end of file
+
+    /**
+     * 向指定频道发布消息（Redis Pub/Sub）
+     * @param channel 频道名
+     * @param message 消息内容
+     */
+    public void publish(String channel, Object message) {
+        redisTemplate.convertAndSend(channel, message);
+    }
+
+    /**
+     * 使用当前模板的值序列化器反序列化订阅到的消息体
+     * @param body 消息字节
+     * @return 反序列化后的对象
+     */
+    public Object deserializeMessage(byte[] body) {
+        return redisTemplate.getValueSerializer().deserialize(body);
+    }
+
+    /**
+     * 获取当前节点标识
+     * @return 节点ID
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+}
@@ -0,0 +1,144 @@
+package com.my.blog.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 缓存未命中时的请求合并（single-flight）
+ * 同一节点上对同一个key的并发加载只会执行一次加载函数，其余调用等待并共享结果（或异常）
+ * executeWithLease 在此基础上通过 Redis 租约把合并范围扩大到整个集群
+ * 未拿到租约的调用会轮询等待（最长 wait-millis），调用方不要在持有数据库连接的事务中调用
+ */
+@Slf4j
+@Component
+public class SingleFlight {
+
+    private static final String LEASE_PREFIX = "lease:";
+
+    /**
+     * 正在进行中的加载任务（key -> 结果）
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    private RedisUtils redisUtils;
+
+    @Value("${cache.single-flight.lease-millis:3000}")
+    private long leaseMillis;  // 集群租约有效期（毫秒），防止持有者宕机后租约永不释放
+
+    @Value("${cache.single-flight.wait-millis:2000}")
+    private long waitMillis;  // 未拿到租约时等待其他节点回填缓存的最长时间（毫秒）
+
+    @Value("${cache.single-flight.poll-millis:50}")
+    private long pollMillis;  // 等待期间轮询缓存的间隔（毫秒）
+
+    /**
+     * 节点内合并：同一时刻同一个key只有一个线程执行loader
+     * @param key 合并键
+     * @param loader 实际加载函数（通常是数据库查询）
+     * @return 加载结果
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> loader) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return (T) await(existing);
+        }
+
+        try {
+            T value = loader.get();
+            future.complete(value);
+            return value;
+        } catch (Throwable e) {
+            // 包括 Error：否则等待者会在 join 上永远阻塞
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * 集群级合并：节点内先合并，再通过 Redis 租约保证整个集群只有一个节点执行loader
+     * 未拿到租约的节点轮询缓存等待回填，超时后降级为自行加载
+     * @param key 合并键
+     * @param cacheReader 读取缓存的函数，返回 null 表示尚未回填
+     * @param loader 实际加载函数（负责回填缓存）
+     * @return 加载结果
+     */
+    public <T> T executeWithLease(String key, Supplier<T> cacheReader, Supplier<T> loader) {
+        return execute(key, () -> loadWithLease(key, cacheReader, loader));
+    }
+
+    private <T> T loadWithLease(String key, Supplier<T> cacheReader, Supplier<T> loader) {
+        String leaseKey = LEASE_PREFIX + key;
+        String owner = redisUtils.getNodeId() + ":" + Thread.currentThread().getId();
+
+        boolean acquired;
+        try {
+            acquired = Boolean.TRUE.equals(redisUtils.setIfAbsent(leaseKey, owner, leaseMillis, TimeUnit.MILLISECONDS));
+        } catch (Exception e) {
+            // Redis 不可用时退化为节点内合并
+            log.warn("获取加载租约失败，直接加载: {}", e.getMessage());
+            return loader.get();
+        }
+
+        if (acquired) {
+            try {
+                return loader.get();
+            } finally {
+                releaseLease(leaseKey, owner);
+            }
+        }
+
+        // 其他节点正在加载，等待其回填缓存
+        long deadline = System.currentTimeMillis() + waitMillis;
+        while (System.currentTimeMillis() < deadline) {
+            T cached = cacheReader.get();
+            if (cached != null) {
+                return cached;
+            }
+            try {
+                Thread.sleep(pollMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        T cached = cacheReader.get();
+        return cached != null ? cached : loader.get();
+    }
+
+    // 只释放自己持有的租约（租约过期后可能已被其他节点获取），比较与删除在 Redis 中原子执行
+    private void releaseLease(String leaseKey, String owner) {
+        try {
+            redisUtils.deleteIfEquals(leaseKey, owner);
+        } catch (Exception e) {
+            log.warn("释放加载租约失败: {}", e.getMessage());
+        }
+    }
+
+    private Object await(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.my.blog.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompressedBitmapTest {
+
+    private static final int ARRAY_MAX = 4096;
+
+    @Test
+    void keepsBucketBoundariesApart() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        long[] values = {0, 65535, 65536, 131071, 131072, 1L << 40};
+        for (long value : values) {
+            bitmap.add(value);
+        }
+
+        assertThat(toList(bitmap)).containsExactly(0L, 65535L, 65536L, 131071L, 131072L, 1L << 40);
+        assertThat(bitmap.contains(65537)).isFalse();
+        assertThat(bitmap.contains((1L << 40) + 1)).isFalse();
+
+        // 删除桶内唯一的元素后整个桶被移除，相邻桶不受影响
+        bitmap.remove(1L << 40);
+        bitmap.remove(131072);
+        assertThat(toList(bitmap)).containsExactly(0L, 65535L, 65536L, 131071L);
+        assertThat(bitmap.cardinality()).isEqualTo(4);
+    }
+
+    @Test
+    void convertsBetweenArrayAndBitmapContainers() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        long base = 3L << 16;
+        for (int i = 0; i < ARRAY_MAX; i++) {
+            bitmap.add(base + i * 2L);
+        }
+        assertThat(bitmap.cardinality()).isEqualTo(ARRAY_MAX);
+
+        // 第 4097 个元素使数组桶转为位图桶
+        bitmap.add(base + 1);
+        assertThat(bitmap.cardinality()).isEqualTo(ARRAY_MAX + 1);
+        assertThat(bitmap.contains(base + 1)).isTrue();
+        assertThat(bitmap.contains(base + 3)).isFalse();
+
+        // 重复添加不改变基数
+        bitmap.add(base + 1);
+        assertThat(bitmap.cardinality()).isEqualTo(ARRAY_MAX + 1);
+
+        // 删除后回到 4096 个元素，位图桶转回数组桶，内容与顺序不变
+        bitmap.remove(base);
+        assertThat(bitmap.cardinality()).isEqualTo(ARRAY_MAX);
+        List<Long> values = toList(bitmap);
+        assertThat(values).hasSize(ARRAY_MAX).isSorted();
+        assertThat(values.get(0)).isEqualTo(base + 1);
+        assertThat(values.get(values.size() - 1)).isEqualTo(base + (ARRAY_MAX - 1) * 2L);
+
+        // 转回的数组桶仍可继续增删
+        bitmap.add(base);
+        bitmap.remove(base + 1);
+        assertThat(bitmap.contains(base)).isTrue();
+        assertThat(bitmap.contains(base + 1)).isFalse();
+        assertThat(bitmap.cardinality()).isEqualTo(ARRAY_MAX);
+    }
+
+    @Test
+    void removingAllElementsEmptiesTheBitmap() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int i = 0; i < 10_000; i++) {
+            bitmap.add(i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            bitmap.remove(i);
+        }
+        assertThat(bitmap.isEmpty()).isTrue();
+        assertThat(bitmap.cardinality()).isZero();
+        assertThat(toList(bitmap)).isEmpty();
+    }
+
+    @Test
+    void setOperationsMatchBitSet() {
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            BitSet leftOracle = new BitSet();
+            BitSet rightOracle = new BitSet();
+            CompressedBitmap left = randomBitmap(random, leftOracle);
+            CompressedBitmap right = randomBitmap(random, rightOracle);
+
+            BitSet and = (BitSet) leftOracle.clone();
+            and.and(rightOracle);
+            BitSet or = (BitSet) leftOracle.clone();
+            or.or(rightOracle);
+            BitSet andNot = (BitSet) leftOracle.clone();
+            andNot.andNot(rightOracle);
+
+            assertSameElements(left.and(right), and);
+            assertSameElements(left.or(right), or);
+            assertSameElements(left.andNot(right), andNot);
+            assertSameElements(right.andNot(left), without(rightOracle, leftOracle));
+
+            // 运算不修改参与运算的位图
+            assertSameElements(left, leftOracle);
+            assertSameElements(right, rightOracle);
+        }
+    }
+
+    @Test
+    void copyIsIndependent() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int i = 0; i < ARRAY_MAX + 10; i++) {
+            bitmap.add(i);
+        }
+        CompressedBitmap copy = bitmap.copy();
+        copy.remove(0);
+        copy.add(1L << 20);
+
+        assertThat(bitmap.contains(0)).isTrue();
+        assertThat(bitmap.contains(1L << 20)).isFalse();
+        assertThat(copy.cardinality()).isEqualTo(bitmap.cardinality());
+    }
+
+    // 混合稀疏桶（数组）与密集桶（位图），元素落在 8 个相邻桶中以覆盖只存在于一侧的桶
+    private CompressedBitmap randomBitmap(Random random, BitSet oracle) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int bucket = 0; bucket < 8; bucket++) {
+            int mode = random.nextInt(3);
+            int count = mode == 0 ? 0 : mode == 1 ? random.nextInt(200) : ARRAY_MAX + random.nextInt(20_000);
+            for (int i = 0; i < count; i++) {
+                int value = (bucket << 16) | random.nextInt(1 << 16);
+                bitmap.add(value);
+                oracle.set(value);
+            }
+        }
+        return bitmap;
+    }
+
+    private BitSet without(BitSet left, BitSet right) {
+        BitSet result = (BitSet) left.clone();
+        result.andNot(right);
+        return result;
+    }
+
+    private void assertSameElements(CompressedBitmap bitmap, BitSet oracle) {
+        List<Long> expected = new ArrayList<>();
+        oracle.stream().forEach(value -> expected.add((long) value));
+        assertThat(toList(bitmap)).isEqualTo(expected);
+        assertThat(bitmap.cardinality()).isEqualTo(oracle.cardinality());
+        assertThat(bitmap.isEmpty()).isEqualTo(oracle.isEmpty());
+    }
+
+    private List<Long> toList(CompressedBitmap bitmap) {
+        List<Long> values = new ArrayList<>();
+        bitmap.forEach(values::add);
+        return values;
+    }
+}
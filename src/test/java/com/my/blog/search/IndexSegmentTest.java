@@ -0,0 +1,99 @@
+package com.my.blog.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IndexSegmentTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsBackWhatWasWritten() throws IOException {
+        TreeMap<String, int[]> postings = new TreeMap<>();
+        postings.put("redis", new int[]{0, 3, 2, 1});
+        postings.put("缓存", new int[]{1, 2});
+        postings.put("java", new int[]{2, 5});
+
+        Path path = dir.resolve("segment-1000.seg");
+        IndexSegment.write(path, 1000L, List.of(10L, 20L, 30L), List.of(7, 4, 9), postings);
+        IndexSegment segment = IndexSegment.open(path);
+
+        assertThat(segment.getPath()).isEqualTo(path);
+        assertThat(segment.getWatermark()).isEqualTo(1000L);
+        assertThat(segment.getDocCount()).isEqualTo(3);
+        assertThat(segment.getTotalLength()).isEqualTo(20L);
+        assertThat(segment.articleIdAt(2)).isEqualTo(30L);
+        assertThat(segment.lengthAt(1)).isEqualTo(4);
+        assertThat(segment.ordinalOf(20L)).isEqualTo(1);
+        assertThat(segment.ordinalOf(99L)).isNull();
+
+        assertThat(postingsOf(segment, "redis")).containsExactly(0, 3, 2, 1);
+        assertThat(postingsOf(segment, "缓存")).containsExactly(1, 2);
+        assertThat(postingsOf(segment, "java")).containsExactly(2, 5);
+        assertThat(postingsOf(segment, "mysql")).isEmpty();
+        assertThat(segment.forEachPosting("mysql", (ordinal, frequency) -> { })).isZero();
+
+        // 遍历顺序与写入时的字典序一致，倒排表读取函数返回文档频率
+        Map<String, Integer> terms = new LinkedHashMap<>();
+        segment.forEachTerm((term, reader) -> terms.put(term, reader.applyAsInt((ordinal, frequency) -> { })));
+        assertThat(terms).containsExactly(Map.entry("java", 1), Map.entry("redis", 2), Map.entry("缓存", 1));
+
+        // 写入完成后不留临时文件
+        assertThat(Files.exists(dir.resolve("segment-1000.seg.tmp"))).isFalse();
+    }
+
+    @Test
+    void findsEveryTermInLargeDictionary() throws IOException {
+        TreeMap<String, int[]> postings = new TreeMap<>();
+        for (int i = 0; i < 1000; i++) {
+            postings.put("term" + i, new int[]{i % 2, i + 1});
+        }
+        Path path = dir.resolve("segment-1.seg");
+        IndexSegment.write(path, 1L, List.of(1L, 2L), List.of(1, 1), postings);
+        IndexSegment segment = IndexSegment.open(path);
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(postingsOf(segment, "term" + i)).containsExactly(i % 2, i + 1);
+        }
+        assertThat(postingsOf(segment, "term")).isEmpty();
+        assertThat(postingsOf(segment, "term9999")).isEmpty();
+    }
+
+    @Test
+    void emptySegmentHasNoDocumentsOrTerms() {
+        IndexSegment segment = IndexSegment.empty();
+        assertThat(segment.getPath()).isNull();
+        assertThat(segment.getDocCount()).isZero();
+        assertThat(segment.getTotalLength()).isZero();
+        assertThat(postingsOf(segment, "redis")).isEmpty();
+    }
+
+    @Test
+    void rejectsFileWithWrongMagic() throws IOException {
+        Path path = dir.resolve("segment-2.seg");
+        Files.write(path, new byte[32]);
+        assertThatThrownBy(() -> IndexSegment.open(path)).isInstanceOf(IllegalStateException.class);
+    }
+
+    private List<Integer> postingsOf(IndexSegment segment, String term) {
+        List<Integer> values = new ArrayList<>();
+        segment.forEachPosting(term, (ordinal, frequency) -> {
+            values.add(ordinal);
+            values.add(frequency);
+        });
+        return values;
+    }
+}
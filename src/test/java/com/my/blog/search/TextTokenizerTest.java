@@ -0,0 +1,56 @@
+package com.my.blog.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextTokenizerTest {
+
+    @Test
+    void splitsLatinWordsOnPunctuationAndLowercases() {
+        assertThat(TextTokenizer.tokenize("Spring Boot 3.4, **Redis**-Cache!"))
+                .containsExactly("spring", "boot", "3", "4", "redis", "cache");
+    }
+
+    @Test
+    void splitsCjkRunsIntoBigrams() {
+        assertThat(TextTokenizer.tokenize("数据库索引")).containsExactly("数据", "据库", "库索", "索引");
+    }
+
+    @Test
+    void keepsIsolatedCjkCharacterAsSingleToken() {
+        assertThat(TextTokenizer.tokenize("用 Java 写")).containsExactly("用", "java", "写");
+        assertThat(TextTokenizer.isSingleCjk("用")).isTrue();
+        assertThat(TextTokenizer.isSingleCjk("数据")).isFalse();
+        assertThat(TextTokenizer.isSingleCjk("a")).isFalse();
+    }
+
+    @Test
+    void separatesMixedCjkAndLatinWithoutSpaces() {
+        assertThat(TextTokenizer.tokenize("学习Redis缓存"))
+                .containsExactly("学习", "redis", "缓存");
+        assertThat(TextTokenizer.tokenize("MySQL8性能优化"))
+                .containsExactly("mysql8", "性能", "能优", "优化");
+    }
+
+    @Test
+    void handlesJapaneseKoreanAndSupplementaryCharacters() {
+        assertThat(TextTokenizer.tokenize("ひらがな")).containsExactly("ひら", "らが", "がな");
+        assertThat(TextTokenizer.tokenize("한국어")).containsExactly("한국", "국어");
+        // 扩展B区汉字占两个 char，仍按一个字处理
+        assertThat(TextTokenizer.tokenize("𠀀字")).containsExactly("𠀀字");
+    }
+
+    @Test
+    void truncatesOverlongLatinWords() {
+        String token = TextTokenizer.tokenize("a".repeat(100)).get(0);
+        assertThat(token).hasSize(32);
+    }
+
+    @Test
+    void returnsEmptyListForBlankInput() {
+        assertThat(TextTokenizer.tokenize(null)).isEmpty();
+        assertThat(TextTokenizer.tokenize("")).isEmpty();
+        assertThat(TextTokenizer.tokenize(" ，。!? ")).isEmpty();
+    }
+}
@@ -0,0 +1,82 @@
+package com.my.blog.service.Impl;
+
+import com.my.blog.repository.ArticleRepository;
+import com.my.blog.utils.RedisUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ArticleBloomFilterServiceTest {
+
+    private ArticleRepository repository;
+
+    private ArticleBloomFilterService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ArticleRepository.class);
+        // 已发布文章 1..100，另有草稿最大ID为 120
+        when(repository.selectPublishedArticleIds()).thenReturn(LongStream.rangeClosed(1, 100).boxed().toList());
+        when(repository.selectMaxArticleId()).thenReturn(120L);
+
+        service = new ArticleBloomFilterService();
+        ReflectionTestUtils.setField(service, "articleRepository", repository);
+        ReflectionTestUtils.setField(service, "redisUtils", mock(RedisUtils.class));
+        ReflectionTestUtils.setField(service, "expectedInsertions", 1000L);
+        ReflectionTestUtils.setField(service, "falsePositiveRate", 0.01);
+        service.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void rejectsIdsAboveLimitWithoutQueryingDatabase() {
+        clearInvocations(repository);
+
+        assertThat(service.mightContain(1_000_000_000L)).isFalse();
+        assertThat(service.mightContain(121L)).isFalse();
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void passesIdsBetweenWatermarkAndLimit() {
+        assertThat(service.mightContain(50L)).isTrue();
+        // 构建后创建、尚未广播到本节点的文章ID不被误拦
+        assertThat(service.mightContain(110L)).isTrue();
+        assertThat(service.mightContain(120L)).isTrue();
+    }
+
+    @Test
+    void addRaisesLimit() {
+        service.add(200L);
+        assertThat(service.mightContain(200L)).isTrue();
+        assertThat(service.mightContain(201L)).isFalse();
+    }
+
+    @Test
+    void limitNeverShrinks() {
+        when(repository.selectMaxArticleId()).thenReturn(300L);
+        service.refreshIdLimit();
+        assertThat(service.mightContain(300L)).isTrue();
+
+        // 数据库查询失败或返回较小值时保留原上限
+        when(repository.selectMaxArticleId()).thenReturn(100L);
+        service.refreshIdLimit();
+        when(repository.selectMaxArticleId()).thenThrow(new IllegalStateException("db down"));
+        service.refreshIdLimit();
+        assertThat(service.mightContain(300L)).isTrue();
+        assertThat(service.mightContain(301L)).isFalse();
+    }
+}
@@ -0,0 +1,110 @@
+package com.my.blog.service.Impl;
+
+import com.my.blog.entity.Article;
+import com.my.blog.repository.ArticleRepository;
+import com.my.blog.search.SearchHits;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ArticleSearchServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private ArticleSearchService service;
+
+    @BeforeEach
+    void setUp() {
+        ArticleRepository repository = mock(ArticleRepository.class);
+        when(repository.selectSearchableAfter(anyLong(), anyInt())).thenReturn(List.of(
+                article(1L, "redis redis"),
+                article(2L, "redis java java java"),
+                article(3L, "java"),
+                article(4L, "redis redis")));
+
+        service = new ArticleSearchService();
+        ReflectionTestUtils.setField(service, "articleRepository", repository);
+        ReflectionTestUtils.setField(service, "backend", "index");
+        ReflectionTestUtils.setField(service, "indexDir", dir.toString());
+        ReflectionTestUtils.setField(service, "mergeThreshold", 1000);
+        ReflectionTestUtils.setField(service, "buildBatchSize", 500);
+        ReflectionTestUtils.setField(service, "catchUpMarginMinutes", 10L);
+        // 在测试线程上直接全量构建，不经过写线程
+        ReflectionTestUtils.invokeMethod(service, "load");
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void ranksByBm25AndBreaksTiesByNewerArticle() {
+        SearchHits hits = service.search("redis", 1, 10);
+
+        // 文章1与文章4内容相同、得分相同，ID大的在前；文章2词频低且文档更长，排在后面；文章3不含该词
+        assertThat(hits.getTotal()).isEqualTo(3);
+        assertThat(hits.getArticleIds()).containsExactly(4L, 1L, 2L);
+    }
+
+    @Test
+    void scoreMatchesBm25Formula() {
+        @SuppressWarnings("unchecked")
+        Map<Long, Double> scores = ReflectionTestUtils.invokeMethod(service, "score",
+                new LinkedHashSet<>(List.of("redis")));
+
+        // N=4，文档长度 2/4/1/2，平均长度 9/4；redis 的文档频率为3
+        double idf = Math.log(1 + (4 - 3 + 0.5) / (3 + 0.5));
+        double averageLength = 9.0 / 4;
+        double expected1 = idf * 2 * 2.2 / (2 + 1.2 * (0.25 + 0.75 * 2 / averageLength));
+        double expected2 = idf * 1 * 2.2 / (1 + 1.2 * (0.25 + 0.75 * 4 / averageLength));
+        assertThat(scores).containsOnlyKeys(1L, 2L, 4L);
+        assertThat(scores.get(1L)).isCloseTo(expected1, within(1e-9));
+        assertThat(scores.get(2L)).isCloseTo(expected2, within(1e-9));
+    }
+
+    @Test
+    void requiresAllQueryTerms() {
+        SearchHits hits = service.search("Redis Java", 1, 10);
+        assertThat(hits.getTotal()).isEqualTo(1);
+        assertThat(hits.getArticleIds()).containsExactly(2L);
+
+        assertThat(service.search("redis mysql", 1, 10).getTotal()).isZero();
+    }
+
+    @Test
+    void pagesThroughRankedResults() {
+        assertThat(service.search("redis", 2, 2).getArticleIds()).containsExactly(2L);
+        assertThat(service.search("redis", 3, 2).getArticleIds()).isEmpty();
+    }
+
+    @Test
+    void fallsBackForSingleCjkCharacterQuery() {
+        assertThat(service.search("缓", 1, 10)).isNull();
+    }
+
+    private Article article(Long articleId, String content) {
+        Article article = new Article();
+        article.setArticleId(articleId);
+        article.setTitle("");
+        article.setSummary("");
+        article.setContent(content);
+        article.setStatus("published");
+        return article;
+    }
+}
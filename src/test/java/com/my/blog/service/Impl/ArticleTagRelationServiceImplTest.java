@@ -0,0 +1,86 @@
+package com.my.blog.service.Impl;
+
+import com.my.blog.entity.ArticleTag;
+import com.my.blog.repository.ArticleCategoryRepository;
+import com.my.blog.repository.ArticleTagRelationRepository;
+import com.my.blog.repository.ArticleTagRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ArticleTagRelationServiceImplTest {
+
+    private ArticleTagRepository tagRepository;
+
+    private ArticleTagRelationRepository relationRepository;
+
+    private TaxonomyDictionary dictionary;
+
+    private ArticleTagRelationServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        tagRepository = mock(ArticleTagRepository.class);
+        relationRepository = mock(ArticleTagRelationRepository.class);
+        ArticleCategoryRepository categoryRepository = mock(ArticleCategoryRepository.class);
+        when(relationRepository.selectTagIdsByArticleId(1L)).thenReturn(List.of());
+
+        dictionary = new TaxonomyDictionary();
+        ReflectionTestUtils.setField(dictionary, "articleTagRepository", tagRepository);
+        ReflectionTestUtils.setField(dictionary, "articleCategoryRepository", categoryRepository);
+        ReflectionTestUtils.setField(dictionary, "cacheInvalidationService", mock(CacheInvalidationService.class));
+
+        service = new ArticleTagRelationServiceImpl();
+        ReflectionTestUtils.setField(service, "articleTagRelationRepository", relationRepository);
+        ReflectionTestUtils.setField(service, "articleTagRepository", tagRepository);
+        ReflectionTestUtils.setField(service, "taxonomyDictionary", dictionary);
+    }
+
+    @Test
+    void resolvesNameDifferingOnlyInCaseFromDictionary() {
+        when(tagRepository.selectList(null)).thenReturn(List.of(tag(7L, "Java")));
+        dictionary.run(null);
+
+        assertThat(service.syncTagsByName(1L, List.of("java", "JAVA"))).isTrue();
+
+        verify(tagRepository, never()).selectByNames(anyCollection());
+        verify(tagRepository, never()).insertIgnoreBatch(anyCollection());
+        verify(relationRepository).insertBatch(1L, Set.of(7L));
+    }
+
+    @Test
+    void resolvesNameDifferingOnlyInCaseAfterIgnoredInsert() {
+        // 字典尚未同步到其他节点刚创建的 "Java"：第一次按名称查询未命中，
+        // INSERT IGNORE 因唯一索引（忽略大小写）被忽略，重新查询返回库中的 "Java"
+        when(tagRepository.selectList(null)).thenReturn(List.of());
+        dictionary.run(null);
+        when(tagRepository.selectByNames(anyCollection()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(tag(7L, "Java")));
+        when(tagRepository.insertIgnoreBatch(anyCollection())).thenReturn(0);
+
+        assertThat(service.syncTagsByName(1L, List.of("java"))).isTrue();
+
+        verify(relationRepository).insertBatch(1L, Set.of(7L));
+    }
+
+    @Test
+    void accentInsensitiveKey() {
+        assertThat(TaxonomyDictionary.tagNameKey("Café")).isEqualTo(TaxonomyDictionary.tagNameKey("cafe"));
+        assertThat(TaxonomyDictionary.tagNameKey("Java")).isNotEqualTo(TaxonomyDictionary.tagNameKey("JavaScript"));
+    }
+
+    private ArticleTag tag(Long tagId, String tagName) {
+        return ArticleTag.builder().tagId(tagId).tagName(tagName).build();
+    }
+}
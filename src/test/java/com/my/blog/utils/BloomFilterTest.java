@@ -0,0 +1,78 @@
+package com.my.blog.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void neverReportsInsertedValuesAsMissing() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (long id = 1; id <= 10_000; id++) {
+            filter.put(id);
+        }
+        for (long id = 1; id <= 10_000; id++) {
+            assertThat(filter.mightContain(id)).isTrue();
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearConfiguredRate() {
+        int inserted = 10_000;
+        BloomFilter filter = new BloomFilter(inserted, 0.01);
+        // 文章ID连续自增，按实际使用方式插入连续ID
+        for (long id = 1; id <= inserted; id++) {
+            filter.put(id);
+        }
+
+        int probes = 200_000;
+        assertThat(falsePositives(filter, inserted + 1, probes) / (double) probes).isLessThan(0.015);
+
+        // 随机分布的ID同样满足
+        Random random = new Random(7);
+        int randomFalsePositives = 0;
+        for (int i = 0; i < probes; i++) {
+            long id = (random.nextLong() & Long.MAX_VALUE) | (1L << 40);
+            if (filter.mightContain(id)) {
+                randomFalsePositives++;
+            }
+        }
+        assertThat(randomFalsePositives / (double) probes).isLessThan(0.015);
+    }
+
+    @Test
+    void lowerConfiguredRateGivesFewerFalsePositives() {
+        BloomFilter loose = new BloomFilter(10_000, 0.05);
+        BloomFilter strict = new BloomFilter(10_000, 0.001);
+        for (long id = 1; id <= 10_000; id++) {
+            loose.put(id);
+            strict.put(id);
+        }
+        int probes = 200_000;
+        double looseRate = falsePositives(loose, 10_001, probes) / (double) probes;
+        double strictRate = falsePositives(strict, 10_001, probes) / (double) probes;
+
+        assertThat(looseRate).isLessThan(0.07);
+        assertThat(strictRate).isLessThan(0.002);
+        assertThat(strictRate).isLessThan(looseRate);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+        assertThat(falsePositives(filter, 0, 10_000)).isZero();
+    }
+
+    private int falsePositives(BloomFilter filter, long from, int count) {
+        int hits = 0;
+        for (long id = from; id < from + count; id++) {
+            if (filter.mightContain(id)) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+}
@@ -0,0 +1,81 @@
+package com.my.blog.utils;
+
+import com.my.blog.exception.CustomException;
+import com.my.blog.exception.ErrorCode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PageCursorTest {
+
+    @Test
+    void roundTripsLocalDateTime() {
+        LocalDateTime time = LocalDateTime.of(2024, 5, 17, 8, 30, 15, 123_000_000);
+        PageCursor cursor = PageCursor.decode(PageCursor.encode(time, 42L));
+
+        assertThat(cursor.getTime()).isEqualTo(time);
+        assertThat(cursor.getId()).isEqualTo(42L);
+    }
+
+    @Test
+    void roundTripsDate() {
+        Date date = new Date(1_700_000_000_123L);
+        PageCursor cursor = PageCursor.decode(PageCursor.encode(date, Long.MAX_VALUE));
+
+        assertThat(cursor.getDate()).isEqualTo(date);
+        assertThat(cursor.getId()).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void encodesAsUrlSafeTextWithoutPadding() {
+        String encoded = PageCursor.encode(LocalDateTime.of(2024, 1, 1, 0, 0), 1L);
+        assertThat(encoded).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void treatsBlankCursorAsFirstPage() {
+        assertThat(PageCursor.decode(null)).isNull();
+        assertThat(PageCursor.decode("")).isNull();
+        assertThat(PageCursor.decode("   ")).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"not base64!", "%%%", "a"})
+    void rejectsInvalidBase64(String cursor) {
+        assertValidationFailure(() -> PageCursor.decode(cursor));
+    }
+
+    @Test
+    void rejectsCursorWithoutSeparatorOrNumericId() {
+        assertValidationFailure(() -> PageCursor.decode(encodeRaw("2024-01-01T00:00")));
+        assertValidationFailure(() -> PageCursor.decode(encodeRaw("2024-01-01T00:00|abc")));
+        assertValidationFailure(() -> PageCursor.decode(encodeRaw("2024-01-01T00:00|")));
+    }
+
+    @Test
+    void rejectsMalformedSortKeyWhenRead() {
+        PageCursor cursor = PageCursor.decode(encodeRaw("yesterday|5"));
+        assertThat(cursor.getId()).isEqualTo(5L);
+        assertValidationFailure(cursor::getTime);
+        assertValidationFailure(cursor::getDate);
+    }
+
+    private String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void assertValidationFailure(Runnable action) {
+        assertThatThrownBy(action::run)
+                .isInstanceOf(CustomException.class)
+                .extracting("code")
+                .isEqualTo(ErrorCode.PARAM_VALIDATION_FAILED.getCode());
+    }
+}